@@ -0,0 +1,122 @@
+package com.gym.management.service;
+
+import com.gym.management.model.GymService;
+import com.gym.management.model.ServiceStatus;
+import com.gym.management.model.ServiceType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Near-me queries answered by GeoIndex and by scanning every approved service, the way the frontend sorted the
+// downloaded catalog. Services are spread over India's bounding box; queries start from random points inside it.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class GeoIndexBenchmark {
+
+    private static final double MIN_LAT = 8;
+    private static final double MAX_LAT = 35;
+    private static final double MIN_LON = 68;
+    private static final double MAX_LON = 97;
+    private static final int QUERIES = 1024;
+    private static final int K = 20;
+    private static final double RADIUS_KM = 10;
+
+    @Param({ "10000", "100000", "1000000" })
+    private int services;
+
+    private GeoIndex index;
+    private GeoIndex.Point[] points;
+    private double[][] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        ServiceType[] types = ServiceType.values();
+        index = new GeoIndex(null, 0.05);
+        points = new GeoIndex.Point[services];
+        for (int id = 1; id <= services; id++) {
+            GymService service = GymService.builder()
+                    .id(id)
+                    .status(ServiceStatus.APPROVED)
+                    .type(types[random.nextInt(types.length)])
+                    .latitude(MIN_LAT + random.nextDouble() * (MAX_LAT - MIN_LAT))
+                    .longitude(MIN_LON + random.nextDouble() * (MAX_LON - MIN_LON))
+                    .build();
+            index.onStatusChange(service);
+            points[id - 1] = new GeoIndex.Point(id, service.getLatitude(), service.getLongitude(), service.getType());
+        }
+        queries = new double[QUERIES][];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = new double[] { MIN_LAT + random.nextDouble() * (MAX_LAT - MIN_LAT),
+                    MIN_LON + random.nextDouble() * (MAX_LON - MIN_LON) };
+        }
+    }
+
+    @Benchmark
+    public List<GeoIndex.Match> indexNearest() {
+        double[] q = nextQuery();
+        return index.nearest(q[0], q[1], null, K);
+    }
+
+    // Bounded max-heap, so the baseline pays for the scan and not for sorting every service
+    @Benchmark
+    public List<GeoIndex.Match> scanNearest() {
+        double[] q = nextQuery();
+        PriorityQueue<GeoIndex.Match> best = new PriorityQueue<>(K + 1,
+                Comparator.comparingDouble(GeoIndex.Match::distanceKm).reversed());
+        for (GeoIndex.Point p : points) {
+            best.add(new GeoIndex.Match(p.serviceId(), GeoIndex.distanceKm(q[0], q[1], p.latitude(), p.longitude())));
+            if (best.size() > K) {
+                best.poll();
+            }
+        }
+        List<GeoIndex.Match> matches = new ArrayList<>(best);
+        matches.sort(Comparator.comparingDouble(GeoIndex.Match::distanceKm));
+        return matches;
+    }
+
+    @Benchmark
+    public List<GeoIndex.Match> indexWithinRadius() {
+        double[] q = nextQuery();
+        return index.withinRadius(q[0], q[1], RADIUS_KM, null, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public List<GeoIndex.Match> scanWithinRadius() {
+        double[] q = nextQuery();
+        List<GeoIndex.Match> matches = new ArrayList<>();
+        for (GeoIndex.Point p : points) {
+            double distance = GeoIndex.distanceKm(q[0], q[1], p.latitude(), p.longitude());
+            if (distance <= RADIUS_KM) {
+                matches.add(new GeoIndex.Match(p.serviceId(), distance));
+            }
+        }
+        matches.sort(Comparator.comparingDouble(GeoIndex.Match::distanceKm));
+        return matches;
+    }
+
+    private double[] nextQuery() {
+        next = (next + 1) & (QUERIES - 1);
+        return queries[next];
+    }
+}
@@ -0,0 +1,115 @@
+package com.gym.management.service;
+
+import com.gym.management.dto.AnalyticsQueryRequest.Dimension;
+import com.gym.management.model.Transaction;
+import com.gym.management.model.TransactionStatus;
+import com.gym.management.model.TransactionType;
+import com.gym.management.model.User;
+import com.gym.management.model.Wallet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// The same slices answered by TransactionColumns and by grouping a list of Transaction entities with streams,
+// the way the revenue report used to before the daily rollups
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class TransactionColumnsBenchmark {
+
+    private static final String[] GATEWAYS = { "STRIPE", "RAZORPAY", "WALLET" };
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+    private static final LocalDate FROM = LocalDate.of(2024, 4, 1);
+    private static final LocalDate TO = LocalDate.of(2024, 9, 30);
+
+    @Param({ "1000000" })
+    private int rows;
+
+    @Param({ "10000" })
+    private int wallets;
+
+    private List<Transaction> entities;
+    private TransactionColumns columns;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<Wallet> walletList = new ArrayList<>(wallets);
+        for (int i = 0; i < wallets; i++) {
+            walletList.add(Wallet.builder().id(i + 1).user(User.builder().id(i + 1).build()).build());
+        }
+        TransactionType[] types = TransactionType.values();
+        entities = new ArrayList<>(rows);
+        columns = new TransactionColumns();
+        for (int id = 1; id <= rows; id++) {
+            Transaction transaction = Transaction.builder()
+                    .id(id)
+                    .amount(random.nextInt(50000) / 100.0)
+                    .type(types[random.nextInt(types.length)])
+                    .status(random.nextInt(20) == 0 ? TransactionStatus.FAILED : TransactionStatus.SUCCESS)
+                    .gateway(GATEWAYS[random.nextInt(GATEWAYS.length)])
+                    .createdAt(FIRST_DAY.plusDays(random.nextInt(365)).atTime(random.nextInt(24), 0))
+                    .wallet(walletList.get(random.nextInt(wallets)))
+                    .build();
+            entities.add(transaction);
+            columns.append(id, transaction.getCreatedAt().toLocalDate(), transaction.getType(),
+                    transaction.getStatus(), transaction.getGateway(), transaction.getWallet().getUser().getId(),
+                    LedgerService.toMinor(transaction.getAmount()));
+        }
+        columns.publish();
+    }
+
+    // Successful Stripe volume per month and type over half a year
+    @Benchmark
+    public TransactionColumns.Result columnsMonthlyByType() {
+        return columns.scan(new TransactionColumns.Query(FROM, TO, null, Set.of(TransactionStatus.SUCCESS),
+                Set.of("STRIPE"), null, List.of(Dimension.MONTH, Dimension.TYPE)));
+    }
+
+    @Benchmark
+    public Map<YearMonth, Map<TransactionType, Double>> entitiesMonthlyByType() {
+        return entities.stream()
+                .filter(t -> !t.getCreatedAt().toLocalDate().isBefore(FROM)
+                        && !t.getCreatedAt().toLocalDate().isAfter(TO))
+                .filter(t -> t.getStatus() == TransactionStatus.SUCCESS)
+                .filter(t -> "STRIPE".equals(t.getGateway()))
+                .collect(Collectors.groupingBy(t -> YearMonth.from(t.getCreatedAt()),
+                        Collectors.groupingBy(Transaction::getType, Collectors.summingDouble(Transaction::getAmount))));
+    }
+
+    // Revenue per trainer across the whole history
+    @Benchmark
+    public TransactionColumns.Result columnsRevenueByUser() {
+        return columns.scan(new TransactionColumns.Query(null, null, Set.of(TransactionType.REVENUE), null, null,
+                null, List.of(Dimension.USER)));
+    }
+
+    @Benchmark
+    public Map<Integer, Double> entitiesRevenueByUser() {
+        return entities.stream()
+                .filter(t -> t.getType() == TransactionType.REVENUE)
+                .collect(Collectors.groupingBy(t -> t.getWallet().getUser().getId(),
+                        Collectors.summingDouble(Transaction::getAmount)));
+    }
+}
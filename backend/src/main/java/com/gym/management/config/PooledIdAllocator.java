@@ -0,0 +1,126 @@
+package com.gym.management.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Hands out entity ids from blocks of BLOCK_SIZE reserved in the id_generator table, so an insert needs no round
+// trip for its key and Hibernate can batch it. Blocks are reserved over a dedicated connection: borrowing one from
+// the main pool while the inserting transaction still holds its own would deadlock once every pooled connection
+// belongs to a request waiting for the next block. That pool is configured from the id-allocator.* properties
+// alone. The allocator reaches PooledIdGenerator through the settings of its own context's persistence unit.
+@Slf4j
+@Component
+public class PooledIdAllocator implements HibernatePropertiesCustomizer {
+
+    // Hibernate setting under which each persistence unit finds the allocator of the context that built it
+    public static final String SETTING = "com.gym.management.id-allocator";
+
+    private static final int BLOCK_SIZE = 50;
+
+    private final HikariDataSource dataSource;
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    public PooledIdAllocator(@Value("${id-allocator.url}") String url,
+            @Value("${id-allocator.username}") String username,
+            @Value("${id-allocator.password}") String password,
+            @Value("${id-allocator.pool-size}") int poolSize,
+            @Value("${id-allocator.connection-timeout-ms}") long connectionTimeoutMs) {
+        this.dataSource = new HikariDataSource();
+        this.dataSource.setPoolName("id-allocator");
+        this.dataSource.setJdbcUrl(url);
+        this.dataSource.setUsername(username);
+        this.dataSource.setPassword(password);
+        this.dataSource.setMaximumPoolSize(poolSize);
+        this.dataSource.setMinimumIdle(0);
+        this.dataSource.setConnectionTimeout(connectionTimeoutMs);
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(SETTING, this);
+    }
+
+    @PreDestroy
+    public void close() {
+        dataSource.close();
+    }
+
+    public long next(String table) {
+        Block block = blocks.computeIfAbsent(table, t -> new Block());
+        synchronized (block) {
+            if (block.next == block.end) {
+                block.next = reserve(table, block.seeded);
+                block.end = block.next + BLOCK_SIZE;
+                block.seeded = true;
+            }
+            return block.next++;
+        }
+    }
+
+    // The first reservation in each process raises the counter above ids the table already holds, such as rows
+    // written under AUTO_INCREMENT; the counter only ever moves up, so this is safe alongside other instances
+    private long reserve(String table, boolean seeded) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                long floor = 1;
+                if (!seeded) {
+                    try (PreparedStatement max = connection.prepareStatement(
+                            "SELECT COALESCE(MAX(id), 0) + 1 FROM " + table);
+                            ResultSet rs = max.executeQuery()) {
+                        rs.next();
+                        floor = rs.getLong(1);
+                    }
+                }
+                try (PreparedStatement upsert = connection.prepareStatement(
+                        "INSERT INTO id_generator (name, next_val) VALUES (?, ?) "
+                                + "ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, ?)")) {
+                    upsert.setString(1, table);
+                    upsert.setLong(2, floor);
+                    upsert.setLong(3, floor);
+                    upsert.executeUpdate();
+                }
+                long start;
+                try (PreparedStatement select = connection.prepareStatement(
+                        "SELECT next_val FROM id_generator WHERE name = ? FOR UPDATE")) {
+                    select.setString(1, table);
+                    try (ResultSet rs = select.executeQuery()) {
+                        rs.next();
+                        start = rs.getLong(1);
+                    }
+                }
+                try (PreparedStatement update = connection.prepareStatement(
+                        "UPDATE id_generator SET next_val = ? WHERE name = ?")) {
+                    update.setLong(1, start + BLOCK_SIZE);
+                    update.setString(2, table);
+                    update.executeUpdate();
+                }
+                connection.commit();
+                log.debug("Reserved ids {}..{} for {}", start, start + BLOCK_SIZE - 1, table);
+                return start;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not reserve ids for " + table, e);
+        }
+    }
+
+    private static final class Block {
+        private long next;
+        private long end;
+        private boolean seeded;
+    }
+}
@@ -0,0 +1,31 @@
+package com.gym.management.config;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.reflect.Member;
+
+public class PooledIdGenerator implements IdentifierGenerator {
+
+    private final String table;
+    private final PooledIdAllocator allocator;
+
+    // Bound when the persistence unit is built, so a unit without an allocator fails at startup, not on insert
+    public PooledIdGenerator(PooledId config, Member idMember, CustomIdGeneratorCreationContext context) {
+        this.table = config.value();
+        Object allocator = context.getServiceRegistry().requireService(ConfigurationService.class).getSettings()
+                .get(PooledIdAllocator.SETTING);
+        if (!(allocator instanceof PooledIdAllocator pooled)) {
+            throw new IllegalStateException("No PooledIdAllocator is registered with the persistence unit that maps "
+                    + table + "; it is registered by the Spring context that owns the allocator");
+        }
+        this.allocator = pooled;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object entity) {
+        return Math.toIntExact(allocator.next(table));
+    }
+}
@@ -0,0 +1,40 @@
+package com.gym.management.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Counts SQL statements prepared by Hibernate on the current thread while a request is being tracked
+public class QueryCountInspector implements StatementInspector {
+
+    // [statements, open start() calls]; nested start/stop pairs share the outermost count, so a test can measure
+    // a request that QueryCountFilter is also tracking
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    public static void start() {
+        int[] count = COUNT.get();
+        if (count == null) {
+            COUNT.set(new int[] { 0, 1 });
+        } else {
+            count[1]++;
+        }
+    }
+
+    public static int stop() {
+        int[] count = COUNT.get();
+        if (count == null) {
+            return 0;
+        }
+        if (--count[1] == 0) {
+            COUNT.remove();
+        }
+        return count[0];
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+}
@@ -1,16 +1,22 @@
 package com.gym.management.controller;
 
+import com.gym.management.service.ExportService;
 import com.gym.management.service.WalletService;
 import com.gym.management.dto.TransactionResponse;
+import com.gym.management.repository.projection.TransactionSummary;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/v1/admin/transactions")
@@ -18,20 +24,33 @@ import java.util.stream.Collectors;
 public class AdminTransactionController {
 
     private final WalletService walletService;
+    private final ExportService exportService;
 
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
-    public ResponseEntity<List<TransactionResponse>> getAllTransactions() {
-        return ResponseEntity.ok(walletService.getAllTransactions().stream()
-                .map(t -> TransactionResponse.builder()
-                        .id(t.getId())
-                        .amount(t.getAmount())
-                        .type(t.getType())
-                        .status(t.getStatus())
-                        .gateway(t.getGateway())
-                        .transactionId(t.getTransactionId())
-                        .createdAt(t.getCreatedAt())
-                        .build())
-                .collect(Collectors.toList()));
+    public ResponseEntity<List<TransactionResponse>> getAllTransactions(@RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        int pageSize = Pagination.limitOrAll(cursor, limit);
+        List<TransactionSummary> rows = walletService.getAllTransactions(Pagination.beforeId(cursor), pageSize + 1);
+        return Pagination.page(rows, pageSize, t -> String.valueOf(t.id()), t -> TransactionResponse.builder()
+                .id(t.id())
+                .amount(t.amount())
+                .type(t.type())
+                .status(t.status())
+                .gateway(t.gateway())
+                .transactionId(t.transactionId())
+                .createdAt(t.createdAt())
+                .build());
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public void exportTransactions(@RequestParam(defaultValue = "json") String format, HttpServletResponse response)
+            throws IOException {
+        boolean ndjson = "ndjson".equalsIgnoreCase(format);
+        response.setContentType(ndjson ? "application/x-ndjson" : MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=transactions." + (ndjson ? "ndjson" : "json"));
+        exportService.exportTransactions(response.getOutputStream(), ndjson);
     }
 }
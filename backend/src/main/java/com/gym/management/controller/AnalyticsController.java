@@ -1,14 +1,22 @@
 package com.gym.management.controller;
 
-import com.gym.management.model.TransactionType;
-import com.gym.management.repository.*;
+import com.gym.management.dto.AnalyticsQueryRequest;
+import com.gym.management.dto.TrainerAnalyticsResponse;
+import com.gym.management.service.AnalyticsService;
+import com.gym.management.service.CatalogCache;
+import com.gym.management.service.TrainerAnalyticsService;
+import com.gym.management.service.TransactionAnalytics;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
-import java.util.HashMap;
 import java.util.Map;
 
 @RestController
@@ -16,24 +24,42 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class AnalyticsController {
 
-    private final UserRepository userRepository;
-    private final GymServiceRepository serviceRepository;
-    private final BookingRepository bookingRepository;
-    private final TransactionRepository transactionRepository;
+    private final AnalyticsService analyticsService;
+    private final CatalogCache catalogCache;
+    private final TransactionAnalytics transactionAnalytics;
+    private final TrainerAnalyticsService trainerAnalyticsService;
 
     @GetMapping("/stats")
     public ResponseEntity<?> getStats() {
-        Map<String, Object> stats = new HashMap<>();
-        stats.put("totalUsers", userRepository.count());
-        stats.put("totalServices", serviceRepository.count());
-        stats.put("totalBookings", bookingRepository.count());
-
-        // Platform Profit (Commission sum)
-        stats.put("totalRevenue", transactionRepository.findAll().stream()
-                .filter(t -> TransactionType.COMMISSION.equals(t.getType()))
-                .mapToDouble(t -> t.getAmount())
-                .sum());
-
-        return ResponseEntity.ok(stats);
+        return ResponseEntity.ok(analyticsService.getStats());
+    }
+
+    @PostMapping("/query")
+    public ResponseEntity<Map<String, Object>> query(@RequestBody AnalyticsQueryRequest request) {
+        if (!transactionAnalytics.isReady()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Transaction analytics are still loading");
+        }
+        try {
+            return ResponseEntity.ok(transactionAnalytics.query(request));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @GetMapping("/trainers/{trainerId}")
+    public ResponseEntity<TrainerAnalyticsResponse> getTrainerAnalytics(@PathVariable Integer trainerId) {
+        return ResponseEntity.ok(trainerAnalyticsService.getAnalytics(trainerId));
+    }
+
+    // Recounts every trainer's aggregates from bookings, revenue transactions, reviews and session slots
+    @PostMapping("/trainers/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildTrainerAnalytics() {
+        return ResponseEntity.ok(Map.of("trainers", trainerAnalyticsService.rebuild()));
+    }
+
+    @GetMapping("/catalog-cache")
+    public ResponseEntity<Map<String, Object>> getCatalogCacheStats() {
+        return ResponseEntity.ok(catalogCache.getStats());
     }
 }
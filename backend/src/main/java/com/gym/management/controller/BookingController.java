@@ -3,23 +3,45 @@ package com.gym.management.controller;
 import com.gym.management.model.Booking;
 import com.gym.management.model.User;
 import com.gym.management.service.BookingService;
+import com.gym.management.service.IdempotencyService;
+import com.gym.management.service.ImageService;
+import com.gym.management.service.SlotService;
+import com.gym.management.service.TrainerAnalyticsService;
+import com.gym.management.service.TrainerSchedule;
+import com.gym.management.dto.BatchBookingRequest;
 import com.gym.management.dto.BookingRequest;
 import com.gym.management.dto.BookingResponse;
+import com.gym.management.dto.TrainerAnalyticsResponse;
+import com.gym.management.dto.TrainerCalendarResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/bookings")
 @RequiredArgsConstructor
 public class BookingController {
 
+    private static final int MAX_CALENDAR_DAYS = 92;
+    private static final int MAX_BATCH_SESSIONS = 100;
+
     private final BookingService bookingService;
+    private final ImageService imageService;
+    private final IdempotencyService idempotencyService;
+    private final SlotService slotService;
+    private final TrainerSchedule trainerSchedule;
+    private final TrainerAnalyticsService trainerAnalyticsService;
 
     private BookingResponse mapToResponse(Booking b) {
         return BookingResponse.builder()
@@ -27,7 +49,7 @@ public class BookingController {
                 .service(BookingResponse.ServiceInfo.builder()
                         .id(b.getService().getId())
                         .name(b.getService().getName())
-                        .image(b.getService().getImage())
+                        .image(imageService.toPublicUrl(b.getService().getImage()))
                         .category(b.getService().getType().name())
                         .price(b.getService().getPrice())
                         .build())
@@ -38,24 +60,90 @@ public class BookingController {
     }
 
     @PostMapping
-    public ResponseEntity<BookingResponse> createBooking(@RequestBody BookingRequest request) {
+    public ResponseEntity<BookingResponse> createBooking(@RequestBody BookingRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        // Opened ahead of the idempotent transaction so the first rush on a new slot only races on this short insert
+        slotService.open(request.getServiceId(), request.getBookingDate());
+        return idempotencyService.execute(user, "booking", idempotencyKey, request, BookingResponse.class, () -> {
+            Booking booking = bookingService.createBooking(user, request.getServiceId(), request.getBookingDate());
+            return ResponseEntity.ok(mapToResponse(booking));
+        });
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<BookingResponse>> createBookings(@RequestBody BatchBookingRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
         User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        Booking booking = bookingService.createBooking(user, request.getServiceId(), request.getBookingDate());
-        return ResponseEntity.ok(mapToResponse(booking));
+        List<LocalDateTime> sessions = batchSessions(request);
+        @SuppressWarnings("unchecked")
+        Class<List<BookingResponse>> responseType = (Class<List<BookingResponse>>) (Class<?>) List.class;
+        sessions.forEach(session -> slotService.open(request.getServiceId(), session));
+        return idempotencyService.execute(user, "booking-batch", idempotencyKey, request, responseType, () -> {
+            List<Booking> bookings = bookingService.createBookings(user, request.getServiceId(), sessions);
+            return ResponseEntity.ok(bookings.stream().map(this::mapToResponse).toList());
+        });
+    }
+
+    private List<LocalDateTime> batchSessions(BatchBookingRequest request) {
+        List<LocalDateTime> sessions;
+        if (request.getBookingDates() != null && !request.getBookingDates().isEmpty()) {
+            sessions = request.getBookingDates();
+        } else if (request.getFirstSession() != null && request.getDaysOfWeek() != null
+                && !request.getDaysOfWeek().isEmpty() && request.getWeeks() != null && request.getWeeks() > 0) {
+            sessions = bookingService.weeklySessions(request.getFirstSession(),
+                    EnumSet.copyOf(request.getDaysOfWeek()), Math.min(request.getWeeks(), MAX_BATCH_SESSIONS));
+        } else {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Provide bookingDates, or firstSession with daysOfWeek and weeks");
+        }
+        if (sessions.isEmpty() || sessions.size() > MAX_BATCH_SESSIONS || sessions.contains(null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "A batch must contain between 1 and " + MAX_BATCH_SESSIONS + " sessions");
+        }
+        return sessions;
+    }
+
+    @GetMapping("/availability")
+    public ResponseEntity<Map<String, Object>> getAvailability(@RequestParam Integer serviceId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime bookingDate) {
+        return ResponseEntity.ok(slotService.getAvailability(serviceId, bookingDate));
+    }
+
+    @GetMapping("/trainer/{trainerId}/calendar")
+    public ResponseEntity<TrainerCalendarResponse> getTrainerCalendar(@PathVariable Integer trainerId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (!to.isAfter(from) || Duration.between(from, to).toDays() > MAX_CALENDAR_DAYS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Calendar range must be positive and at most " + MAX_CALENDAR_DAYS + " days");
+        }
+        return ResponseEntity.ok(trainerSchedule.getCalendar(trainerId, from, to));
     }
 
     @GetMapping("/my")
-    public ResponseEntity<List<BookingResponse>> getMyBookings() {
+    public ResponseEntity<List<BookingResponse>> getMyBookings(@RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        return ResponseEntity.ok(bookingService.getMyBookings(user).stream()
-                .map(this::mapToResponse).collect(Collectors.toList()));
+        int pageSize = Pagination.limitOrAll(cursor, limit);
+        List<Booking> rows = bookingService.getMyBookings(user, Pagination.beforeId(cursor), pageSize + 1);
+        return Pagination.page(rows, pageSize, b -> String.valueOf(b.getId()), this::mapToResponse);
     }
 
     @GetMapping("/trainer")
     @PreAuthorize("hasRole('TRAINER')")
-    public ResponseEntity<List<BookingResponse>> getTrainerBookings() {
+    public ResponseEntity<List<BookingResponse>> getTrainerBookings(@RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        int pageSize = Pagination.limitOrAll(cursor, limit);
+        List<Booking> rows = bookingService.getTrainerBookings(user, Pagination.beforeId(cursor), pageSize + 1);
+        return Pagination.page(rows, pageSize, b -> String.valueOf(b.getId()), this::mapToResponse);
+    }
+
+    @GetMapping("/trainer/analytics")
+    @PreAuthorize("hasRole('TRAINER')")
+    public ResponseEntity<TrainerAnalyticsResponse> getTrainerAnalytics() {
         User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        return ResponseEntity.ok(bookingService.getTrainerBookings(user).stream()
-                .map(this::mapToResponse).collect(Collectors.toList()));
+        return ResponseEntity.ok(trainerAnalyticsService.getAnalytics(user.getId()));
     }
 }
@@ -0,0 +1,20 @@
+package com.gym.management.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+final class ConditionalGet {
+
+    private ConditionalGet() {
+    }
+
+    // Marks the response revalidatable and answers 304 when the client already holds this version.
+    // Callers compute the ETag from version counters only, so a match never touches the database.
+    static boolean notModified(ServletWebRequest request, String etag) {
+        if (request.getResponse() != null) {
+            request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        }
+        return request.checkNotModified(etag);
+    }
+}
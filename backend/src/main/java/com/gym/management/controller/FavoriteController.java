@@ -6,6 +6,7 @@ import com.gym.management.model.User;
 import com.gym.management.repository.FavoriteRepository;
 import com.gym.management.repository.GymServiceRepository;
 import com.gym.management.dto.GymServiceResponse;
+import com.gym.management.service.ImageService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -22,6 +23,7 @@ public class FavoriteController {
 
     private final FavoriteRepository favoriteRepository;
     private final GymServiceRepository serviceRepository;
+    private final ImageService imageService;
 
     @GetMapping
     public ResponseEntity<List<GymServiceResponse>> getMyFavorites() {
@@ -40,7 +42,7 @@ public class FavoriteController {
                 .price(service.getPrice())
                 .type(service.getType())
                 .status(service.getStatus())
-                .image(service.getImage())
+                .image(imageService.toPublicUrl(service.getImage()))
                 .latitude(service.getLatitude())
                 .longitude(service.getLongitude())
                 .trainerId(service.getTrainer().getId())
@@ -1,21 +1,41 @@
 package com.gym.management.controller;
 
 import com.gym.management.model.GymService;
+import com.gym.management.model.ServiceRating;
 import com.gym.management.model.ServiceStatus;
 import com.gym.management.model.ServiceType;
 import com.gym.management.model.User;
 import com.gym.management.repository.GymServiceRepository;
-import com.gym.management.repository.ReviewRepository;
+import com.gym.management.service.CatalogCache;
+import com.gym.management.service.ContentVersions;
+import com.gym.management.service.ExportService;
+import com.gym.management.service.GeoIndex;
+import com.gym.management.service.ImageService;
 import com.gym.management.service.NotificationService;
+import com.gym.management.service.RatingService;
+import com.gym.management.service.SearchIndex;
 import com.gym.management.dto.GymServiceRequest;
 import com.gym.management.dto.GymServiceResponse;
+import com.gym.management.dto.NearbyServiceResponse;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
@@ -25,13 +45,27 @@ public class GymServiceController {
 
     private final GymServiceRepository serviceRepository;
     private final NotificationService notificationService;
-    private final ReviewRepository reviewRepository;
+    private final RatingService ratingService;
+    private final ImageService imageService;
+    private final CatalogCache catalogCache;
+    private final ContentVersions contentVersions;
+    private final GeoIndex geoIndex;
+    private final SearchIndex searchIndex;
+    private final ExportService exportService;
 
     private GymServiceResponse mapToResponse(GymService service) {
-        var reviews = reviewRepository.findByServiceId(service.getId());
-        double avg = reviews.isEmpty() ? 0.0
-                : reviews.stream().mapToInt(com.gym.management.model.Review::getRating).average().orElse(0.0);
+        return mapToResponse(service, ratingService.getRating(service.getId()));
+    }
+
+    private List<GymServiceResponse> mapToResponses(List<GymService> services) {
+        Map<Integer, ServiceRating> ratings = ratingService.getRatings(
+                services.stream().map(GymService::getId).collect(Collectors.toList()));
+        return services.stream()
+                .map(s -> mapToResponse(s, ratings.get(s.getId())))
+                .collect(Collectors.toList());
+    }
 
+    private GymServiceResponse mapToResponse(GymService service, ServiceRating rating) {
         return GymServiceResponse.builder()
                 .id(service.getId())
                 .name(service.getName())
@@ -41,13 +75,15 @@ public class GymServiceController {
                 .type(service.getType())
                 .category(service.getType() != null ? service.getType().name() : "Other")
                 .status(service.getStatus())
-                .image(service.getImage())
+                .image(imageService.toPublicUrl(service.getImage()))
                 .latitude(service.getLatitude())
                 .longitude(service.getLongitude())
+                .capacity(service.getCapacity())
+                .sessionMinutes(service.getSessionMinutes())
                 .trainerId(service.getTrainer().getId())
                 .trainerName(service.getTrainer().getFirstname() + " " + service.getTrainer().getLastname())
-                .averageRating(avg)
-                .reviewCount(reviews.size())
+                .averageRating(rating != null ? rating.getAverageRating() : 0.0)
+                .reviewCount(rating != null ? rating.getReviewCount() : 0)
                 .build();
     }
 
@@ -55,15 +91,26 @@ public class GymServiceController {
     @PreAuthorize("hasRole('TRAINER')")
     public ResponseEntity<GymServiceResponse> createService(@RequestBody GymServiceRequest request) {
         User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        if (request.getCapacity() != null && request.getCapacity() <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Capacity must be at least 1");
+        }
+        String image;
+        try {
+            image = imageService.storeIfInline(request.getImage());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
         GymService service = GymService.builder()
                 .name(request.getName())
                 .address(request.getAddress())
                 .description(request.getDescription())
                 .price(request.getPrice())
                 .type(request.getType())
-                .image(request.getImage())
+                .image(image)
                 .latitude(request.getLatitude())
                 .longitude(request.getLongitude())
+                .capacity(request.getCapacity())
+                .sessionMinutes(request.getSessionMinutes())
                 .trainer(user)
                 .status(ServiceStatus.PENDING)
                 .build();
@@ -82,24 +129,36 @@ public class GymServiceController {
     public ResponseEntity<List<GymServiceResponse>> getMyServices() {
         User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         List<GymService> services = serviceRepository.findByTrainerId(user.getId());
-        return ResponseEntity.ok(services.stream().map(this::mapToResponse).collect(Collectors.toList()));
+        return ResponseEntity.ok(mapToResponses(services));
     }
 
     @GetMapping("/pending")
     @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
     public ResponseEntity<List<GymServiceResponse>> getPendingServices() {
         List<GymService> services = serviceRepository.findByStatus(ServiceStatus.PENDING);
-        return ResponseEntity.ok(services.stream().map(this::mapToResponse).collect(Collectors.toList()));
+        return ResponseEntity.ok(mapToResponses(services));
     }
 
     @GetMapping("/history")
     @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
-    public ResponseEntity<List<GymServiceResponse>> getServiceHistory() {
-        List<GymService> all = serviceRepository.findAll();
-        return ResponseEntity.ok(all.stream()
-                .filter(p -> p.getStatus() != ServiceStatus.PENDING)
-                .map(this::mapToResponse)
-                .collect(Collectors.toList()));
+    public ResponseEntity<List<GymServiceResponse>> getServiceHistory(@RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        int pageSize = Pagination.limitOrAll(cursor, limit);
+        List<GymService> rows = serviceRepository.findByStatusNotAndIdGreaterThanOrderByIdAsc(ServiceStatus.PENDING,
+                Pagination.afterId(cursor), PageRequest.of(0, pageSize + 1));
+        List<GymServiceResponse> responses = mapToResponses(rows);
+        return Pagination.page(responses, pageSize, r -> String.valueOf(r.getId()), r -> r);
+    }
+
+    @GetMapping("/history/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public void exportServiceHistory(@RequestParam(defaultValue = "json") String format, HttpServletResponse response)
+            throws IOException {
+        boolean ndjson = "ndjson".equalsIgnoreCase(format);
+        response.setContentType(ndjson ? "application/x-ndjson" : MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=service_history." + (ndjson ? "ndjson" : "json"));
+        exportService.exportServiceHistory(response.getOutputStream(), ndjson);
     }
 
     @PutMapping("/{id}/status")
@@ -107,8 +166,12 @@ public class GymServiceController {
     public ResponseEntity<GymServiceResponse> updateStatus(@PathVariable Integer id,
             @RequestParam ServiceStatus status) {
         GymService service = serviceRepository.findById(id).orElseThrow();
+        ServiceStatus previousStatus = service.getStatus();
         service.setStatus(status);
         GymService saved = serviceRepository.save(service);
+        catalogCache.onStatusChange(saved, previousStatus);
+        geoIndex.onStatusChange(saved);
+        searchIndex.onStatusChange(saved);
 
         notificationService.createNotification(service.getTrainer(),
                 "Your training program '" + service.getName() + "' has been " + status.name().toLowerCase() + ".");
@@ -117,19 +180,96 @@ public class GymServiceController {
     }
 
     @GetMapping
-    public ResponseEntity<List<GymServiceResponse>> getServices(@RequestParam(required = false) ServiceType type) {
-        List<GymService> services;
-        if (type != null) {
-            services = serviceRepository.findByTypeAndStatus(type, ServiceStatus.APPROVED);
-        } else {
-            services = serviceRepository.findByStatus(ServiceStatus.APPROVED);
+    public ResponseEntity<List<GymServiceResponse>> getServices(@RequestParam(required = false) ServiceType type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            ServletWebRequest request) {
+        if (ConditionalGet.notModified(request, contentVersions.catalogETag())) {
+            return null;
+        }
+        List<GymServiceResponse> catalog = approvedCatalog(type);
+
+        // The cached catalog is sorted by id, so the keyset cursor is a binary search into it
+        int pageSize = Pagination.limitOrAll(cursor, limit);
+        int from = positionInCatalog(catalog, Pagination.afterId(cursor));
+        from = from >= 0 ? from + 1 : -from - 1;
+        List<GymServiceResponse> rows = catalog.subList(from, (int) Math.min(catalog.size(), (long) from + pageSize + 1));
+        return Pagination.page(rows, pageSize, r -> String.valueOf(r.getId()), r -> r);
+    }
+
+    @GetMapping("/nearby")
+    public ResponseEntity<List<NearbyServiceResponse>> getNearbyServices(@RequestParam Double lat,
+            @RequestParam Double lng,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(required = false) ServiceType type,
+            @RequestParam(defaultValue = "10") Integer limit) {
+        if (lat < -90 || lat > 90 || lng < -180 || lng > 180 || (radiusKm != null && radiusKm <= 0)) {
+            return ResponseEntity.badRequest().build();
         }
-        return ResponseEntity.ok(services.stream().map(this::mapToResponse).collect(Collectors.toList()));
+        int k = Math.max(1, Math.min(limit, 100));
+        List<GeoIndex.Match> matches = radiusKm != null
+                ? geoIndex.withinRadius(lat, lng, radiusKm, type, k)
+                : geoIndex.nearest(lat, lng, type, k);
+
+        List<GymServiceResponse> catalog = approvedCatalog(null);
+        List<NearbyServiceResponse> response = new ArrayList<>();
+        for (GeoIndex.Match match : matches) {
+            int position = positionInCatalog(catalog, match.serviceId());
+            if (position >= 0) {
+                response.add(NearbyServiceResponse.builder()
+                        .service(catalog.get(position))
+                        .distanceKm(match.distanceKm())
+                        .build());
+            }
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<GymServiceResponse>> searchServices(@RequestParam String q,
+            @RequestParam(required = false) ServiceType type,
+            @RequestParam(defaultValue = "20") Integer limit) {
+        List<SearchIndex.Match> matches = searchIndex.search(q, type, Math.max(1, Math.min(limit, 100)));
+        List<GymServiceResponse> catalog = approvedCatalog(null);
+        List<GymServiceResponse> response = new ArrayList<>();
+        for (SearchIndex.Match match : matches) {
+            int position = positionInCatalog(catalog, match.serviceId());
+            if (position >= 0) {
+                response.add(catalog.get(position));
+            }
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<String>> autocomplete(@RequestParam String q,
+            @RequestParam(defaultValue = "10") Integer limit) {
+        return ResponseEntity.ok(searchIndex.autocomplete(q, Math.max(1, Math.min(limit, 50))));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<GymServiceResponse> getServiceById(@PathVariable Integer id) {
+    public ResponseEntity<GymServiceResponse> getServiceById(@PathVariable Integer id, ServletWebRequest request) {
+        if (ConditionalGet.notModified(request, contentVersions.serviceETag(id))) {
+            return null;
+        }
         GymService service = serviceRepository.findById(id).orElseThrow();
         return ResponseEntity.ok(mapToResponse(service));
     }
+
+    private List<GymServiceResponse> approvedCatalog(ServiceType type) {
+        return catalogCache.getApprovedServices(type, () -> {
+            List<GymService> services;
+            if (type != null) {
+                services = serviceRepository.findByTypeAndStatusOrderByIdAsc(type, ServiceStatus.APPROVED);
+            } else {
+                services = serviceRepository.findByStatusOrderByIdAsc(ServiceStatus.APPROVED);
+            }
+            return mapToResponses(services);
+        });
+    }
+
+    private static int positionInCatalog(List<GymServiceResponse> catalog, Integer id) {
+        return Collections.binarySearch(catalog, GymServiceResponse.builder().id(id).build(),
+                Comparator.comparing(GymServiceResponse::getId));
+    }
 }
@@ -0,0 +1,37 @@
+package com.gym.management.controller;
+
+import com.gym.management.model.Wallet;
+import com.gym.management.repository.WalletRepository;
+import com.gym.management.service.LedgerService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/admin/ledger")
+@RequiredArgsConstructor
+public class LedgerController {
+
+    private final LedgerService ledgerService;
+    private final WalletRepository walletRepository;
+
+    @GetMapping("/wallets/{walletId}")
+    public ResponseEntity<Map<String, Object>> getWalletBalance(@PathVariable Integer walletId) {
+        Wallet wallet = walletRepository.findById(walletId)
+                .orElseThrow(() -> new RuntimeException("Wallet not found"));
+        long ledgerMinor = ledgerService.balanceMinor(walletId);
+        long walletMinor = LedgerService.toMinor(wallet.getBalance());
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("walletId", walletId);
+        result.put("ledgerBalance", LedgerService.fromMinor(ledgerMinor));
+        result.put("walletBalance", LedgerService.fromMinor(walletMinor));
+        result.put("difference", LedgerService.fromMinor(walletMinor - ledgerMinor));
+        return ResponseEntity.ok(result);
+    }
+}
@@ -1,7 +1,7 @@
 package com.gym.management.controller;
 
-import com.gym.management.model.Notification;
 import com.gym.management.model.User;
+import com.gym.management.repository.projection.NotificationSummary;
 import com.gym.management.service.NotificationService;
 import com.gym.management.dto.NotificationResponse;
 import com.gym.management.dto.BroadcastRequest;
@@ -12,7 +12,6 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/v1/notifications")
@@ -21,20 +20,26 @@ public class NotificationController {
 
     private final NotificationService notificationService;
 
-    private NotificationResponse mapToResponse(Notification notification) {
+    private NotificationResponse mapToResponse(NotificationSummary notification) {
         return NotificationResponse.builder()
-                .id(notification.getId())
-                .message(notification.getMessage())
+                .id(notification.id())
+                .message(notification.message())
                 .isRead(notification.isRead())
-                .createdAt(notification.getCreatedAt())
+                .createdAt(notification.createdAt())
                 .build();
     }
 
     @GetMapping
-    public ResponseEntity<List<NotificationResponse>> getMyNotifications() {
+    public ResponseEntity<List<NotificationResponse>> getMyNotifications(@RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        List<Notification> notifications = notificationService.getMyNotifications(user);
-        return ResponseEntity.ok(notifications.stream().map(this::mapToResponse).collect(Collectors.toList()));
+        int pageSize = Pagination.limitOrAll(cursor, limit);
+        Pagination.TimeCursor after = Pagination.parseTimeCursor(cursor);
+        List<NotificationSummary> rows = after == null
+                ? notificationService.getMyNotifications(user, null, null, pageSize + 1)
+                : notificationService.getMyNotifications(user, after.createdAt(), after.id(), pageSize + 1);
+        return Pagination.page(rows, pageSize, n -> Pagination.timeCursor(n.createdAt(), n.id()),
+                this::mapToResponse);
     }
 
     @PutMapping("/{id}/read")
@@ -0,0 +1,89 @@
+package com.gym.management.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Keyset pagination helpers: lists stay JSON arrays and the next cursor travels in a response header.
+// Lists that existed before paging only page when asked to (limitOrAll), so clients that read them whole still do.
+final class Pagination {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 500;
+    // One below MAX_VALUE so callers can still ask for limit + 1 rows
+    private static final int ALL = Integer.MAX_VALUE - 1;
+
+    private Pagination() {
+    }
+
+    static int limit(Integer requested) {
+        if (requested == null) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.max(1, Math.min(requested, MAX_LIMIT));
+    }
+
+    // The whole list when neither cursor nor limit is given, otherwise a page as for limit(requested)
+    static int limitOrAll(String cursor, Integer requested) {
+        return cursor == null && requested == null ? ALL : limit(requested);
+    }
+
+    // Callers fetch limit + 1 rows; the extra row tells us another page exists without a COUNT query
+    static <T, R> ResponseEntity<List<R>> page(List<T> rows, int limit, Function<T, String> cursorOf,
+            Function<T, R> mapper) {
+        boolean hasMore = rows.size() > limit;
+        List<T> page = hasMore ? rows.subList(0, limit) : rows;
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (hasMore) {
+            response.header(NEXT_CURSOR_HEADER, cursorOf.apply(page.get(page.size() - 1)));
+        }
+        return response.body(page.stream().map(mapper).collect(Collectors.toList()));
+    }
+
+    static int afterId(String cursor) {
+        return cursor == null ? 0 : parseId(cursor);
+    }
+
+    static int beforeId(String cursor) {
+        return cursor == null ? Integer.MAX_VALUE : parseId(cursor);
+    }
+
+    static String timeCursor(LocalDateTime createdAt, Integer id) {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static TimeCursor parseTimeCursor(String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new TimeCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Integer.valueOf(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    private static int parseId(String cursor) {
+        try {
+            return Integer.parseInt(cursor);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    record TimeCursor(LocalDateTime createdAt, Integer id) {
+    }
+}
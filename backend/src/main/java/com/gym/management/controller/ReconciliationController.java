@@ -0,0 +1,53 @@
+package com.gym.management.controller;
+
+import com.gym.management.model.ReconciliationRun;
+import com.gym.management.model.WalletDiscrepancy;
+import com.gym.management.repository.ReconciliationRunRepository;
+import com.gym.management.repository.WalletDiscrepancyRepository;
+import com.gym.management.service.ReconciliationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/admin/reconciliation")
+@RequiredArgsConstructor
+public class ReconciliationController {
+
+    private final ReconciliationService reconciliationService;
+    private final ReconciliationRunRepository runRepository;
+    private final WalletDiscrepancyRepository discrepancyRepository;
+
+    // Starts a new run, or resumes the last unfinished one, in the background
+    @PostMapping("/runs")
+    public ResponseEntity<Void> startRun() {
+        if (!reconciliationService.start()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Reconciliation is already running");
+        }
+        return ResponseEntity.accepted().build();
+    }
+
+    @GetMapping("/runs")
+    public ResponseEntity<List<ReconciliationRun>> getRuns() {
+        return ResponseEntity.ok(runRepository.findTop20ByOrderByIdDesc());
+    }
+
+    @GetMapping("/runs/{runId}/discrepancies")
+    public ResponseEntity<List<WalletDiscrepancy>> getDiscrepancies(@PathVariable Long runId,
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit) {
+        int pageSize = Pagination.limit(limit);
+        List<WalletDiscrepancy> rows = discrepancyRepository.findByRunIdAndIdGreaterThanOrderById(runId,
+                (long) Pagination.afterId(cursor), PageRequest.of(0, pageSize + 1));
+        return Pagination.page(rows, pageSize, d -> String.valueOf(d.getId()), d -> d);
+    }
+}
@@ -1,22 +1,27 @@
 package com.gym.management.controller;
 
 import com.gym.management.service.GeminiService;
+import com.gym.management.service.RevenueReportService;
 import com.gym.management.service.RevenueService;
-import com.itextpdf.kernel.pdf.PdfDocument;
-import com.itextpdf.kernel.pdf.PdfWriter;
-import com.itextpdf.layout.Document;
-import com.itextpdf.layout.element.Paragraph;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/admin/revenue")
@@ -24,6 +29,7 @@ import java.util.List;
 public class RevenueController {
 
     private final RevenueService revenueService;
+    private final RevenueReportService reportService;
     private final GeminiService geminiService;
 
     @GetMapping("/data")
@@ -32,54 +38,114 @@ public class RevenueController {
         return ResponseEntity.ok(revenueService.getDetailedRevenue());
     }
 
-    @GetMapping("/download-report")
+    // Rebuilds rollups for the days before `before` (default today, at most today) from the transaction and booking
+    // history
+    @PostMapping("/rollups/backfill")
     @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
-    public ResponseEntity<byte[]> downloadReport() {
-        Map<String, Object> data = revenueService.getDetailedRevenue();
+    public ResponseEntity<Map<String, Object>> backfillRollups(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate before) {
+        LocalDate cutoff = before == null ? LocalDate.now() : before;
+        int rows;
+        try {
+            rows = revenueService.backfill(cutoff);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("before", cutoff.toString());
+        response.put("rows", rows);
+        return ResponseEntity.ok(response);
+    }
 
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
+    // The dashboard report, or the one for from..to; served from the report cache when the figures are unchanged
+    @GetMapping("/download-report")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public void downloadReport(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            ServletWebRequest webRequest, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        RevenueReportService.Report report;
         try {
-            PdfWriter writer = new PdfWriter(out);
-            PdfDocument pdf = new PdfDocument(writer);
-            Document document = new Document(pdf);
+            report = reportService.current(from, to);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        if (ConditionalGet.notModified(webRequest, "\"" + report.key() + "\"")) {
+            return;
+        }
+        Path file = reportService.cached(report.key()).orElseGet(() -> {
+            if (reportService.isLarge(from, to)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Ranges of "
+                        + reportService.getSyncMaxMonths() + " months or more are generated with POST /reports");
+            }
+            return reportService.file(report);
+        });
+        sendReport(file, request, response);
+    }
 
-            document.add(new Paragraph("Revenue Analysis Report - Gym Management HQ").setFontSize(20).setBold());
-            document.add(new Paragraph("Generated on: " + java.time.LocalDateTime.now()));
-            document.add(new Paragraph("\n"));
+    // Starts rendering the report for from..to in the background; poll the returned job until it completes
+    @PostMapping("/reports")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<Map<String, Object>> generateReport(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(toResponse(reportService.submit(from, to)));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
 
-            document.add(new Paragraph("SUMMARY STATISTICS").setBold());
-            document.add(new Paragraph("Total Training Volume: ₹" + data.get("totalVolume")));
-            document.add(new Paragraph("Total HQ Commission (15%): ₹" + data.get("totalCommission")));
-            document.add(new Paragraph("Total Successful Bookings: " + data.get("totalBookings")));
+    @GetMapping("/reports/{jobId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<Map<String, Object>> getReportJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(toResponse(findJob(jobId)));
+    }
 
-            document.add(new Paragraph("\nMONTHLY BREAKDOWN (COMMISSION)").setBold());
-            @SuppressWarnings("unchecked")
-            List<Map<String, Object>> monthly = (List<Map<String, Object>>) data.get("monthlyRevenue");
-            if (monthly != null) {
-                for (Map<String, Object> m : monthly) {
-                    document.add(new Paragraph(m.get("month") + ": ₹" + m.get("revenue")));
-                }
-            }
+    @GetMapping("/reports/{jobId}/download")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public void downloadGeneratedReport(@PathVariable String jobId, ServletWebRequest webRequest,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        RevenueReportService.ReportJob job = findJob(jobId);
+        if (job.status() != RevenueReportService.ReportJob.Status.COMPLETED) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Report is " + job.status());
+        }
+        if (ConditionalGet.notModified(webRequest, "\"" + job.key() + "\"")) {
+            return;
+        }
+        Path file = reportService.cached(job.key())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.GONE, "Report has expired"));
+        sendReport(file, request, response);
+    }
 
-            document.add(new Paragraph("\nREVENUE BY TRAINING TYPE").setBold());
-            @SuppressWarnings("unchecked")
-            Map<String, Double> typeRev = (Map<String, Double>) data.get("typeRevenue");
-            if (typeRev != null) {
-                typeRev.forEach((type, rev) -> {
-                    document.add(new Paragraph(type + ": ₹" + String.format("%.2f", rev)));
-                });
-            }
+    private RevenueReportService.ReportJob findJob(String jobId) {
+        return reportService.getJob(jobId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Report job not found"));
+    }
 
-            document.add(new Paragraph("\n\n(End of Official Report)"));
-            document.close();
-        } catch (Exception e) {
-            e.printStackTrace();
+    private static Map<String, Object> toResponse(RevenueReportService.ReportJob job) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("id", job.id());
+        response.put("from", job.from().toString());
+        response.put("to", job.to().toString());
+        response.put("status", job.status());
+        response.put("createdAt", job.createdAt());
+        response.put("finishedAt", job.finishedAt());
+        response.put("error", job.error());
+        if (job.status() == RevenueReportService.ReportJob.Status.COMPLETED) {
+            response.put("downloadUrl", "/api/v1/admin/revenue/reports/" + job.id() + "/download");
         }
+        return response;
+    }
 
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=revenue_report.pdf")
-                .contentType(MediaType.APPLICATION_PDF)
-                .body(out.toByteArray());
+    private static void sendReport(Path file, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        long length = Files.size(file);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=revenue_report.pdf");
+        response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+        response.setContentLengthLong(length);
+        SendFile.send(request, response, file, 0, length - 1);
     }
 
     @PostMapping("/analyze")
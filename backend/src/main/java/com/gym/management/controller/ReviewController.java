@@ -5,13 +5,19 @@ import com.gym.management.model.User;
 import com.gym.management.repository.ReviewRepository;
 import com.gym.management.repository.GymServiceRepository;
 import com.gym.management.repository.BookingRepository;
+import com.gym.management.service.CatalogCache;
+import com.gym.management.service.ContentVersions;
+import com.gym.management.service.RatingService;
 import com.gym.management.dto.ReviewResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
@@ -22,11 +28,18 @@ public class ReviewController {
     private final ReviewRepository reviewRepository;
     private final GymServiceRepository serviceRepository;
     private final BookingRepository bookingRepository;
+    private final RatingService ratingService;
+    private final CatalogCache catalogCache;
+    private final ContentVersions contentVersions;
 
     @PostMapping("/{serviceId}")
     public ResponseEntity<?> addReview(@PathVariable Integer serviceId, @RequestBody Review review) {
         User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
 
+        if (review.getRating() == null || review.getRating() < 1 || review.getRating() > 5) {
+            return ResponseEntity.badRequest().body("Rating must be between 1 and 5.");
+        }
+
         // Safety check: must have booked to review
         boolean hasBooked = bookingRepository.existsByUserIdAndServiceId(user.getId(), serviceId);
         if (!hasBooked) {
@@ -41,7 +54,8 @@ public class ReviewController {
         }
 
         review.setService(service.get());
-        Review saved = reviewRepository.save(review);
+        Review saved = ratingService.saveReview(review);
+        catalogCache.onReview(saved.getService());
         return ResponseEntity.ok(mapToResponse(saved));
     }
 
@@ -57,9 +71,35 @@ public class ReviewController {
     }
 
     @GetMapping("/service/{serviceId}")
-    public ResponseEntity<List<ReviewResponse>> getServiceReviews(@PathVariable Integer serviceId) {
+    public ResponseEntity<List<ReviewResponse>> getServiceReviews(@PathVariable Integer serviceId,
+            ServletWebRequest request) {
+        if (ConditionalGet.notModified(request, contentVersions.reviewsETag(serviceId))) {
+            return null;
+        }
         return ResponseEntity.ok(reviewRepository.findByServiceId(serviceId).stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList()));
     }
+
+    @GetMapping("/service/{serviceId}/summary")
+    public ResponseEntity<Map<String, Object>> getServiceRatingSummary(@PathVariable Integer serviceId,
+            ServletWebRequest request) {
+        if (ConditionalGet.notModified(request, contentVersions.reviewsETag(serviceId))) {
+            return null;
+        }
+        var rating = ratingService.getRating(serviceId);
+        return ResponseEntity.ok(Map.of(
+                "averageRating", rating.getAverageRating(),
+                "reviewCount", rating.getReviewCount(),
+                "histogram", List.of(rating.getOneStar(), rating.getTwoStar(), rating.getThreeStar(),
+                        rating.getFourStar(), rating.getFiveStar())));
+    }
+
+    @PostMapping("/ratings/rebuild")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<Void> rebuildRatings() {
+        ratingService.rebuild();
+        catalogCache.invalidateAll();
+        return ResponseEntity.ok().build();
+    }
 }
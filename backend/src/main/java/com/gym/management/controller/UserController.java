@@ -5,15 +5,28 @@ import com.gym.management.dto.UpdateUserRequest;
 import com.gym.management.dto.UserResponse;
 import com.gym.management.model.User;
 import com.gym.management.repository.UserRepository;
+import com.gym.management.repository.projection.UserSummary;
+import com.gym.management.service.CatalogCache;
+import com.gym.management.service.ExportService;
+import com.gym.management.service.ImageService;
 import com.gym.management.service.JwtService;
+import com.gym.management.service.TreasuryService;
+import com.gym.management.service.WalletService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -25,6 +38,11 @@ public class UserController {
     private final UserRepository repository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
+    private final ImageService imageService;
+    private final CatalogCache catalogCache;
+    private final TreasuryService treasuryService;
+    private final WalletService walletService;
+    private final ExportService exportService;
 
     @GetMapping("/me")
     public ResponseEntity<UserResponse> getCurrentUser() {
@@ -34,7 +52,7 @@ public class UserController {
                 .firstname(user.getFirstname())
                 .lastname(user.getLastname())
                 .email(user.getEmail())
-                .avatar(user.getAvatar())
+                .avatar(imageService.toPublicUrl(user.getAvatar()))
                 .role(user.getRole())
                 .enabled(user.isEnabled())
                 .build());
@@ -51,7 +69,7 @@ public class UserController {
         if (request.getLastname() != null)
             currentUser.setLastname(request.getLastname());
         if (request.getAvatar() != null)
-            currentUser.setAvatar(request.getAvatar());
+            currentUser.setAvatar(storeAvatar(request.getAvatar()));
 
         String newToken = null;
         if (request.getEmail() != null && !request.getEmail().equals(currentUser.getEmail())) {
@@ -63,13 +81,15 @@ public class UserController {
         }
 
         repository.save(currentUser);
+        catalogCache.onUserUpdate(currentUser.getId());
+        treasuryService.onUserChanged(currentUser);
 
         return ResponseEntity.ok(UserResponse.builder()
                 .id(currentUser.getId())
                 .firstname(currentUser.getFirstname())
                 .lastname(currentUser.getLastname())
                 .email(currentUser.getEmail())
-                .avatar(currentUser.getAvatar())
+                .avatar(imageService.toPublicUrl(currentUser.getAvatar()))
                 .role(currentUser.getRole())
                 .enabled(currentUser.isEnabled())
                 .token(newToken)
@@ -78,18 +98,31 @@ public class UserController {
 
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
-    public ResponseEntity<List<UserResponse>> getAllUsers() {
-        List<User> users = repository.findAll();
-        List<UserResponse> response = users.stream().map(user -> UserResponse.builder()
-                .id(user.getId())
-                .firstname(user.getFirstname())
-                .lastname(user.getLastname())
-                .email(user.getEmail())
-                .avatar(user.getAvatar())
-                .role(user.getRole())
-                .enabled(user.isEnabled())
-                .build()).collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+    public ResponseEntity<List<UserResponse>> getAllUsers(@RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        int pageSize = Pagination.limitOrAll(cursor, limit);
+        List<UserSummary> rows = repository.findSummariesAfter(Pagination.afterId(cursor),
+                PageRequest.of(0, pageSize + 1));
+        return Pagination.page(rows, pageSize, u -> String.valueOf(u.id()), u -> UserResponse.builder()
+                .id(u.id())
+                .firstname(u.firstname())
+                .lastname(u.lastname())
+                .email(u.email())
+                .avatar(imageService.toPublicUrl(u.avatar()))
+                .role(u.role())
+                .enabled(u.enabled())
+                .build());
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public void exportUsers(@RequestParam(defaultValue = "json") String format, HttpServletResponse response)
+            throws IOException {
+        boolean ndjson = "ndjson".equalsIgnoreCase(format);
+        response.setContentType(ndjson ? "application/x-ndjson" : MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=users." + (ndjson ? "ndjson" : "json"));
+        exportService.exportUsers(response.getOutputStream(), ndjson);
     }
 
     @GetMapping("/admins")
@@ -101,7 +134,7 @@ public class UserController {
                         .firstname(u.getFirstname())
                         .lastname(u.getLastname())
                         .email(u.getEmail())
-                        .avatar(u.getAvatar())
+                        .avatar(imageService.toPublicUrl(u.getAvatar()))
                         .role(u.getRole())
                         .enabled(u.isEnabled())
                         .build())
@@ -129,12 +162,14 @@ public class UserController {
                 .enabled(true)
                 .build();
         repository.save(user);
+        walletService.openWallet(user);
+        treasuryService.onUserChanged(user);
         return ResponseEntity.ok(UserResponse.builder()
                 .id(user.getId())
                 .firstname(user.getFirstname())
                 .lastname(user.getLastname())
                 .email(user.getEmail())
-                .avatar(user.getAvatar())
+                .avatar(imageService.toPublicUrl(user.getAvatar()))
                 .role(user.getRole())
                 .enabled(user.isEnabled())
                 .build());
@@ -153,18 +188,20 @@ public class UserController {
         if (request.getEmail() != null)
             user.setEmail(request.getEmail());
         if (request.getAvatar() != null)
-            user.setAvatar(request.getAvatar());
+            user.setAvatar(storeAvatar(request.getAvatar()));
         if (request.getRole() != null)
             user.setRole(request.getRole());
 
         repository.save(user);
+        catalogCache.onUserUpdate(user.getId());
+        treasuryService.onUserChanged(user);
 
         return ResponseEntity.ok(UserResponse.builder()
                 .id(user.getId())
                 .firstname(user.getFirstname())
                 .lastname(user.getLastname())
                 .email(user.getEmail())
-                .avatar(user.getAvatar())
+                .avatar(imageService.toPublicUrl(user.getAvatar()))
                 .role(user.getRole())
                 .enabled(user.isEnabled())
                 .build());
@@ -173,7 +210,17 @@ public class UserController {
     @DeleteMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
     public ResponseEntity<Void> deleteUser(@PathVariable Integer id) {
+        catalogCache.onUserUpdate(id);
         repository.deleteById(id);
+        treasuryService.onUserDeleted(id);
         return ResponseEntity.ok().build();
     }
+
+    private String storeAvatar(String avatar) {
+        try {
+            return imageService.storeIfInline(avatar);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
 }
@@ -2,9 +2,11 @@ package com.gym.management.controller;
 
 import com.gym.management.model.User;
 import com.gym.management.model.Wallet;
+import com.gym.management.service.IdempotencyService;
 import com.gym.management.service.WalletService;
 import com.gym.management.dto.WalletResponse;
 import com.gym.management.dto.TransactionResponse;
+import com.gym.management.repository.projection.TransactionSummary;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -12,7 +14,6 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/v1/wallet")
@@ -20,6 +21,7 @@ import java.util.stream.Collectors;
 public class WalletController {
 
     private final WalletService walletService;
+    private final IdempotencyService idempotencyService;
 
     @GetMapping
     public ResponseEntity<WalletResponse> getMyWallet() {
@@ -27,35 +29,38 @@ public class WalletController {
         Wallet wallet = walletService.getMyWallet(user);
         return ResponseEntity.ok(WalletResponse.builder()
                 .id(wallet.getId())
-                .balance(wallet.getBalance())
+                .balance(walletService.getBalance(wallet))
                 .build());
     }
 
     @GetMapping("/transactions")
-    public ResponseEntity<List<TransactionResponse>> getMyTransactions() {
+    public ResponseEntity<List<TransactionResponse>> getMyTransactions(@RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        return ResponseEntity.ok(walletService.getTransactions(user).stream()
-                .map(t -> TransactionResponse.builder()
-                        .id(t.getId())
-                        .amount(t.getAmount())
-                        .type(t.getType())
-                        .status(t.getStatus())
-                        .gateway(t.getGateway())
-                        .transactionId(t.getTransactionId())
-                        .createdAt(t.getCreatedAt())
-                        .build())
-                .collect(Collectors.toList()));
+        int pageSize = Pagination.limitOrAll(cursor, limit);
+        List<TransactionSummary> rows = walletService.getTransactions(user, Pagination.beforeId(cursor), pageSize + 1);
+        return Pagination.page(rows, pageSize, t -> String.valueOf(t.id()), t -> TransactionResponse.builder()
+                .id(t.id())
+                .amount(t.amount())
+                .type(t.type())
+                .status(t.status())
+                .gateway(t.gateway())
+                .transactionId(t.transactionId())
+                .createdAt(t.createdAt())
+                .build());
     }
 
     @PostMapping("/add-funds")
-    public ResponseEntity<?> addFunds(@RequestBody Map<String, Object> payload) {
+    public ResponseEntity<Void> addFunds(@RequestBody Map<String, Object> payload,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
         User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         Double amount = Double.valueOf(payload.get("amount").toString());
         String transactionId = payload.get("transactionId").toString();
         String gateway = payload.get("gateway").toString();
 
-        walletService.addFunds(user, amount, transactionId, gateway);
-
-        return ResponseEntity.ok().build();
+        return idempotencyService.execute(user, "add-funds", idempotencyKey, payload, Void.class, () -> {
+            walletService.addFunds(user, amount, transactionId, gateway);
+            return ResponseEntity.ok().build();
+        });
     }
 }
@@ -0,0 +1,35 @@
+package com.gym.management.dto;
+
+import com.gym.management.model.TransactionStatus;
+import com.gym.management.model.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnalyticsQueryRequest {
+    // Inclusive transaction dates; either end may be left open
+    private LocalDate from;
+    private LocalDate to;
+
+    // Empty filters match everything
+    private List<TransactionType> types;
+    private List<TransactionStatus> statuses;
+    private List<String> gateways;
+    // Wallet owners: the trainer for REVENUE rows, the member for BOOKING and DEPOSIT rows
+    private List<Integer> userIds;
+
+    private List<Dimension> groupBy;
+    private Integer limit;
+
+    public enum Dimension {
+        DAY, MONTH, TYPE, STATUS, GATEWAY, USER
+    }
+}
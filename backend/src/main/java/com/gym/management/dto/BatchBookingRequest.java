@@ -0,0 +1,26 @@
+package com.gym.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchBookingRequest {
+    private Integer serviceId;
+
+    // Either explicit sessions...
+    private List<LocalDateTime> bookingDates;
+
+    // ...or a weekly recurrence starting at firstSession, e.g. TUESDAY and THURSDAY for 8 weeks
+    private LocalDateTime firstSession;
+    private List<DayOfWeek> daysOfWeek;
+    private Integer weeks;
+}
@@ -19,4 +19,6 @@ public class GymServiceRequest {
     private String image;
     private Double latitude;
     private Double longitude;
+    private Integer capacity;
+    private Integer sessionMinutes;
 }
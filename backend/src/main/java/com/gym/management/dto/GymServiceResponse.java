@@ -23,6 +23,8 @@ public class GymServiceResponse {
     private String image;
     private Double latitude;
     private Double longitude;
+    private Integer capacity;
+    private Integer sessionMinutes;
     private Integer trainerId;
     private String trainerName;
     private Double averageRating;
@@ -0,0 +1,15 @@
+package com.gym.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class NearbyServiceResponse {
+    private GymServiceResponse service;
+    private Double distanceKm;
+}
@@ -0,0 +1,42 @@
+package com.gym.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TrainerAnalyticsResponse {
+    private Integer trainerId;
+    private Long totalBookings;
+    private Long distinctClients;
+    private Double totalEarnings;
+
+    // Seats filled in capacity-limited sessions that had at least one booking; utilization is null without any
+    private Long seatsBooked;
+    private Long seatsOffered;
+    private Double utilization;
+
+    private Double averageRating;
+    private Long reviewCount;
+
+    // The last twelve months, oldest first
+    private List<Month> monthly;
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Month {
+        private String month;
+        private Long bookings;
+        private Double earnings;
+        private Double averageRating;
+        private Long reviewCount;
+    }
+}
@@ -0,0 +1,32 @@
+package com.gym.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TrainerCalendarResponse {
+    private Integer trainerId;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private List<Block> busy;
+    private List<Block> free;
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Block {
+        private LocalDateTime start;
+        private LocalDateTime end;
+        private Integer serviceId;
+        private Integer bookings;
+    }
+}
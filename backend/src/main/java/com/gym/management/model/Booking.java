@@ -1,5 +1,6 @@
 package com.gym.management.model;
 
+import com.gym.management.config.PooledId;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -13,16 +14,19 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_booking_series", columnList = "seriesId"),
+        @Index(name = "idx_booking_service_date", columnList = "service_id, bookingDate") })
 public class Booking {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId("booking")
     private Integer id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "service_id")
     private GymService service;
 
@@ -32,6 +36,10 @@ public class Booking {
     // PENDING, CONFIRMED, CANCELLED, COMPLETED
     private String status;
 
+    // Shared by the bookings of one batch request; null for single bookings
+    @Column(length = 36)
+    private String seriesId;
+
     private LocalDateTime createdAt;
 
     @PrePersist
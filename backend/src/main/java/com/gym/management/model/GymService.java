@@ -28,13 +28,19 @@ public class GymService {
     @Enumerated(EnumType.STRING)
     private ServiceStatus status;
 
-    @Lob
-    @Column(columnDefinition = "LONGTEXT")
+    // Path into the image store (/api/v1/images/{sha256}) or an external URL
+    @Column(length = 1024)
     private String image;
 
     private Double latitude;
     private Double longitude;
 
+    // Seats per session; null keeps the type's default (see SlotService)
+    private Integer capacity;
+
+    // Length of one session; null uses booking.session-minutes
+    private Integer sessionMinutes;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "trainer_id")
     private User trainer;
@@ -0,0 +1,23 @@
+package com.gym.management.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Next unreserved id of a table whose ids come from PooledIdAllocator
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "id_generator")
+public class IdSequence {
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(name = "next_val", nullable = false)
+    private Long nextVal;
+}
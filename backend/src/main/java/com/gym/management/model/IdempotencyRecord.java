@@ -0,0 +1,40 @@
+package com.gym.management.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Stored outcome of a request sent with an Idempotency-Key; status stays null while the request is running
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(indexes = @Index(name = "idx_idempotency_expires", columnList = "expiresAt"))
+public class IdempotencyRecord {
+
+    // SHA-256 of user id, endpoint and client key
+    @Id
+    @Column(length = 64)
+    private String id;
+
+    @Column(length = 64, nullable = false)
+    private String requestHash;
+
+    // Token of the attempt holding the record; only that attempt can complete it
+    @Column(length = 36)
+    private String attempt;
+
+    private Integer status;
+
+    // A batch of up to 100 bookings serialises to tens of kilobytes
+    @Column(columnDefinition = "MEDIUMTEXT")
+    private String responseBody;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime expiresAt;
+}
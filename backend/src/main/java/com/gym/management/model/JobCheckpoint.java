@@ -0,0 +1,25 @@
+package com.gym.management.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Resume position of a background job, e.g. the last ledger entry folded into snapshots
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+public class JobCheckpoint {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    private Long position;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,11 @@
+package com.gym.management.model;
+
+// Sides a journal can post to: member, trainer and treasury wallets, plus the system accounts money enters from
+public enum LedgerAccount {
+    WALLET,
+    PAYMENT_GATEWAY,
+    OPENING_BALANCE,
+    UNALLOCATED_COMMISSION,
+    // Commission held in treasury sub-accounts until the next roll-up
+    TREASURY_SHARDS
+}
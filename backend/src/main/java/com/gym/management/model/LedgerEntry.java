@@ -0,0 +1,56 @@
+package com.gym.management.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One leg of a journal; the legs of a journal always sum to zero. The amount columns never change once inserted,
+// but the row is not immutable: the snapshot job flips folded from false to true, exactly once per entry.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_ledger_wallet_folded", columnList = "walletId, folded"),
+        @Index(name = "idx_ledger_folded", columnList = "folded, id"),
+        @Index(name = "idx_ledger_journal", columnList = "journalId") })
+public class LedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 36, nullable = false)
+    private String journalId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 30, nullable = false)
+    private LedgerAccount account;
+
+    // Set for WALLET legs only
+    private Integer walletId;
+
+    // Minor units (paise); credits positive, debits negative
+    @Column(nullable = false)
+    private Long amountMinor;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 30)
+    private TransactionType type;
+
+    // Mutable: set by LedgerEntryRepository.markFolded once the entry's amount is part of its wallet's snapshot
+    @Column(nullable = false)
+    private boolean folded;
+
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -1,5 +1,6 @@
 package com.gym.management.model;
 
+import com.gym.management.config.PooledId;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -13,10 +14,11 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Table(indexes = @Index(name = "idx_notification_recipient_created", columnList = "user_id, createdAt, id"))
 public class Notification {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId("notification")
     private Integer id;
 
     private String message;
@@ -0,0 +1,45 @@
+package com.gym.management.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Side effect recorded in the same transaction as the change that caused it, drained by OutboxDispatcher
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(indexes = @Index(name = "idx_outbox_pending", columnList = "processedAt, id"))
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    private OutboxEventType type;
+
+    private Integer aggregateId;
+
+    // type:aggregateId, so publishing the same event twice is rejected by the database
+    @Column(unique = true, nullable = false)
+    private String eventKey;
+
+    private int attempts;
+
+    @Column(length = 1024)
+    private String lastError;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime processedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,6 @@
+package com.gym.management.model;
+
+public enum OutboxEventType {
+    BOOKING_CONFIRMED,
+    BOOKING_SERIES_CONFIRMED
+}
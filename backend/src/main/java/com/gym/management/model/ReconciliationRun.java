@@ -0,0 +1,40 @@
+package com.gym.management.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One pass comparing wallet balances with their transactions; position is the last wallet id reconciled,
+// so a run that stopped part-way resumes after it
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+public class ReconciliationRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private ReconciliationStatus status;
+
+    private Integer position;
+    private Integer upToWalletId;
+    private long walletsChecked;
+    private long transactionsSummed;
+    private int discrepancies;
+
+    @Column(length = 1024)
+    private String lastError;
+
+    private LocalDateTime startedAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime finishedAt;
+}
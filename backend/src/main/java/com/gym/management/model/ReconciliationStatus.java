@@ -0,0 +1,7 @@
+package com.gym.management.model;
+
+public enum ReconciliationStatus {
+    RUNNING,
+    FAILED,
+    COMPLETED
+}
@@ -0,0 +1,44 @@
+package com.gym.management.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// One day's wallet movements of a type, per service type and trainer, kept current by WalletService. Movements
+// without a service, such as top-ups, use an empty service type and trainer 0 so the key stays unique.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_revenue_daily_key",
+        columnNames = { "day", "type", "serviceType", "trainerId" }))
+public class RevenueDaily {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate day;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 30, nullable = false)
+    private TransactionType type;
+
+    @Column(length = 30, nullable = false)
+    private String serviceType;
+
+    @Column(nullable = false)
+    private Integer trainerId;
+
+    private long amountMinor;
+    private long transactions;
+
+    // Sessions paid for; a series is one BOOKING transaction covering several
+    private long bookings;
+}
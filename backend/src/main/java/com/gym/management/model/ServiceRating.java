@@ -0,0 +1,32 @@
+package com.gym.management.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+public class ServiceRating {
+
+    // One row per GymService, maintained incrementally as reviews are saved
+    @Id
+    private Integer serviceId;
+
+    private Long ratingSum;
+    private Integer reviewCount;
+
+    private Integer oneStar;
+    private Integer twoStar;
+    private Integer threeStar;
+    private Integer fourStar;
+    private Integer fiveStar;
+
+    public double getAverageRating() {
+        return reviewCount == null || reviewCount == 0 ? 0.0 : (double) ratingSum / reviewCount;
+    }
+}
@@ -0,0 +1,31 @@
+package com.gym.management.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Seat counter for one session of a capacity-limited service
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = { "service_id", "start_time" }))
+public class ServiceSlot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "service_id", nullable = false)
+    private Integer serviceId;
+
+    @Column(name = "start_time", nullable = false)
+    private LocalDateTime startTime;
+
+    private Integer capacity;
+    private Integer booked;
+}
@@ -0,0 +1,27 @@
+package com.gym.management.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A member who has booked a trainer at least once; inserting the pair tells whether the member is a new client
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_trainer_client", columnNames = { "trainerId", "userId" }))
+public class TrainerClient {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Integer trainerId;
+
+    @Column(nullable = false)
+    private Integer userId;
+}
@@ -0,0 +1,35 @@
+package com.gym.management.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// One trainer's bookings, earnings and reviews in a calendar month, keyed by the month's first day
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_trainer_monthly_key",
+        columnNames = { "trainerId", "month" }))
+public class TrainerMonthly {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Integer trainerId;
+
+    @Column(nullable = false)
+    private LocalDate month;
+
+    private long bookings;
+    private long earningsMinor;
+    private long ratingSum;
+    private long reviewCount;
+}
@@ -0,0 +1,30 @@
+package com.gym.management.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Running totals for one trainer, kept current as bookings, revenue credits and reviews are written
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+public class TrainerStats {
+
+    @Id
+    private Integer trainerId;
+
+    private long bookings;
+    private long clients;
+    private long earningsMinor;
+
+    // Seats taken and seats available across capacity-limited sessions that had at least one booking
+    private long seatsBooked;
+    private long seatsOffered;
+
+    private long ratingSum;
+    private long reviewCount;
+}
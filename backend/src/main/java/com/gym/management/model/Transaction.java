@@ -1,5 +1,6 @@
 package com.gym.management.model;
 
+import com.gym.management.config.PooledId;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -13,10 +14,12 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_created_at", columnList = "createdAt"),
+        @Index(name = "idx_transactions_type_amount", columnList = "type, amount") })
 public class Transaction {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId("transactions")
     private Integer id;
 
     private Double amount;
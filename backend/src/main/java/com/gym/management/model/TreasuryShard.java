@@ -0,0 +1,22 @@
+package com.gym.management.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One of the sub-accounts commission is credited to between roll-ups into the treasury wallet
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+public class TreasuryShard {
+    @Id
+    private Integer shard;
+
+    // Minor units not yet rolled up
+    @Column(nullable = false)
+    private Long balanceMinor;
+}
@@ -29,8 +29,8 @@ public class User implements UserDetails {
     @Column(unique = true)
     private String email;
     private String password;
-    @Lob
-    @Column(columnDefinition = "LONGTEXT")
+    // Path into the image store (/api/v1/images/{sha256}) or an external URL
+    @Column(length = 1024)
     private String avatar;
 
     @Enumerated(EnumType.STRING)
@@ -0,0 +1,27 @@
+package com.gym.management.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A wallet whose balance differs from the sum of its successful transactions in a reconciliation run
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(indexes = @Index(name = "idx_discrepancy_run", columnList = "runId, id"))
+public class WalletDiscrepancy {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long runId;
+    private Integer walletId;
+    private Double walletBalance;
+    private Double transactionTotal;
+    private Double difference;
+}
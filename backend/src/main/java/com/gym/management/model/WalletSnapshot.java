@@ -0,0 +1,24 @@
+package com.gym.management.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Ledger balance of a wallet over its folded entries; the unfolded ones form the tail
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+public class WalletSnapshot {
+
+    @Id
+    private Integer walletId;
+
+    private Long balanceMinor;
+    private LocalDateTime takenAt;
+}
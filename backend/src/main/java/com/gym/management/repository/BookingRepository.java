@@ -1,7 +1,16 @@
 package com.gym.management.repository;
 
 import com.gym.management.model.Booking;
+import com.gym.management.repository.projection.BookedSession;
+import com.gym.management.repository.projection.BookingDayTotal;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface BookingRepository extends JpaRepository<Booking, Integer> {
@@ -9,5 +18,46 @@ public interface BookingRepository extends JpaRepository<Booking, Integer> {
 
     List<Booking> findByServiceTrainerId(Integer trainerId);
 
+    @EntityGraph(attributePaths = "service")
+    List<Booking> findByUserIdAndIdLessThanOrderByIdDesc(Integer userId, Integer beforeId, Pageable pageable);
+
+    @EntityGraph(attributePaths = "service")
+    List<Booking> findByServiceTrainerIdAndIdLessThanOrderByIdDesc(Integer trainerId, Integer beforeId,
+            Pageable pageable);
+
+    @EntityGraph(attributePaths = "service")
+    @Query("SELECT b FROM Booking b")
+    List<Booking> findAllWithService();
+
+    @EntityGraph(attributePaths = { "user", "service", "service.trainer" })
+    List<Booking> findByIdIn(Collection<Integer> ids);
+
+    @Query("SELECT new com.gym.management.repository.projection.BookedSession("
+            + "s.id, b.bookingDate, s.sessionMinutes, COUNT(b)) "
+            + "FROM Booking b JOIN b.service s "
+            + "WHERE s.trainer.id = :trainerId AND b.bookingDate >= :since "
+            + "AND (b.status IS NULL OR b.status <> 'CANCELLED') "
+            + "GROUP BY s.id, b.bookingDate, s.sessionMinutes")
+    List<BookedSession> findBookedSessionsSince(@Param("trainerId") Integer trainerId,
+            @Param("since") LocalDateTime since);
+
+    List<Booking> findBySeriesIdOrderByBookingDateAsc(String seriesId);
+
     boolean existsByUserIdAndServiceId(Integer userId, Integer serviceId);
+
+    // A series is paid in one transaction, so payments count distinct series plus single bookings
+    @Query("SELECT new com.gym.management.repository.projection.BookingDayTotal("
+            + "EXTRACT(DATE FROM b.createdAt), s.type, s.trainer.id, COUNT(b), "
+            + "COUNT(DISTINCT b.seriesId) + SUM(CASE WHEN b.seriesId IS NULL THEN 1 ELSE 0 END), "
+            + "SUM(b.totalAmount)) FROM Booking b JOIN b.service s "
+            + "WHERE b.createdAt >= :from AND b.createdAt < :before "
+            + "GROUP BY EXTRACT(DATE FROM b.createdAt), s.type, s.trainer.id")
+    List<BookingDayTotal> sumByDayAndService(@Param("from") LocalDateTime from,
+            @Param("before") LocalDateTime before);
+
+    // Rows of [trainerId, year, month, bookings] used to rebuild trainer aggregates
+    @Query("SELECT s.trainer.id, YEAR(b.createdAt), MONTH(b.createdAt), COUNT(b) FROM Booking b JOIN b.service s "
+            + "WHERE s.trainer IS NOT NULL AND b.createdAt IS NOT NULL "
+            + "GROUP BY s.trainer.id, YEAR(b.createdAt), MONTH(b.createdAt)")
+    List<Object[]> countByTrainerAndMonth();
 }
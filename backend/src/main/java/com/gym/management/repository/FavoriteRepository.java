@@ -3,11 +3,13 @@ package com.gym.management.repository;
 import com.gym.management.model.Favorite;
 import com.gym.management.model.GymService;
 import com.gym.management.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import java.util.List;
 import java.util.Optional;
 
 public interface FavoriteRepository extends JpaRepository<Favorite, Integer> {
+    @EntityGraph(attributePaths = { "service", "service.trainer" })
     List<Favorite> findByUser(User user);
 
     Optional<Favorite> findByUserAndService(User user, GymService service);
@@ -3,13 +3,52 @@ package com.gym.management.repository;
 import com.gym.management.model.GymService;
 import com.gym.management.model.ServiceType;
 import com.gym.management.model.ServiceStatus;
+import com.gym.management.repository.projection.ServiceSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface GymServiceRepository extends JpaRepository<GymService, Integer> {
+    @EntityGraph(attributePaths = "trainer")
     List<GymService> findByStatus(ServiceStatus status);
 
+    @EntityGraph(attributePaths = "trainer")
     List<GymService> findByTypeAndStatus(ServiceType type, ServiceStatus status);
 
+    @EntityGraph(attributePaths = "trainer")
+    List<GymService> findByStatusOrderByIdAsc(ServiceStatus status);
+
+    @EntityGraph(attributePaths = "trainer")
+    List<GymService> findByTypeAndStatusOrderByIdAsc(ServiceType type, ServiceStatus status);
+
+    @EntityGraph(attributePaths = "trainer")
+    List<GymService> findByStatusNotAndIdGreaterThanOrderByIdAsc(ServiceStatus status, Integer afterId,
+            Pageable pageable);
+
+    @EntityGraph(attributePaths = "trainer")
     List<GymService> findByTrainerId(Integer trainerId);
+
+    @Query("SELECT MAX(g.sessionMinutes) FROM GymService g WHERE g.trainer.id = :trainerId")
+    Integer findLongestSessionMinutes(@Param("trainerId") Integer trainerId);
+
+    @Query("SELECT g.id FROM GymService g WHERE g.image LIKE 'data:%'")
+    List<Integer> findIdsWithInlineImage();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    @Query("SELECT new com.gym.management.repository.projection.ServiceSummary("
+            + "g.id, g.name, g.address, g.description, g.price, g.type, g.status, g.image, g.latitude, g.longitude, "
+            + "t.id, t.firstname, t.lastname, r.ratingSum, r.reviewCount) "
+            + "FROM GymService g JOIN g.trainer t LEFT JOIN ServiceRating r ON r.serviceId = g.id "
+            + "WHERE g.status <> :excluded ORDER BY g.id")
+    Stream<ServiceSummary> streamSummariesExcluding(@Param("excluded") ServiceStatus excluded);
 }
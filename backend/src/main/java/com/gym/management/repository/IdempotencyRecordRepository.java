@@ -0,0 +1,49 @@
+package com.gym.management.repository;
+
+import com.gym.management.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // A plain insert, unlike save(), fails on an existing key: the primary key is the cross-instance claim
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_record (id, request_hash, attempt, created_at, expires_at) "
+            + "VALUES (:id, :requestHash, :attempt, :createdAt, :expiresAt)", nativeQuery = true)
+    void insertPending(@Param("id") String id, @Param("requestHash") String requestHash,
+            @Param("attempt") String attempt, @Param("createdAt") LocalDateTime createdAt,
+            @Param("expiresAt") LocalDateTime expiresAt);
+
+    // Hands an abandoned pending record to a new attempt; of several contenders only one matches the old token
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.attempt = :attempt, r.requestHash = :requestHash, "
+            + "r.createdAt = :createdAt, r.expiresAt = :expiresAt "
+            + "WHERE r.id = :id AND r.attempt = :staleAttempt AND r.status IS NULL")
+    int takeOver(@Param("id") String id, @Param("staleAttempt") String staleAttempt,
+            @Param("attempt") String attempt, @Param("requestHash") String requestHash,
+            @Param("createdAt") LocalDateTime createdAt, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.status = :status, r.responseBody = :responseBody "
+            + "WHERE r.id = :id AND r.attempt = :attempt AND r.status IS NULL")
+    int complete(@Param("id") String id, @Param("attempt") String attempt, @Param("status") Integer status,
+            @Param("responseBody") String responseBody);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.attempt = :attempt AND r.status IS NULL")
+    int release(@Param("id") String id, @Param("attempt") String attempt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,29 @@
+package com.gym.management.repository;
+
+import com.gym.management.model.JobCheckpoint;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface JobCheckpointRepository extends JpaRepository<JobCheckpoint, String> {
+
+    @Modifying
+    @Query(value = "INSERT INTO job_checkpoint (name) VALUES (:name) ON DUPLICATE KEY UPDATE name = name",
+            nativeQuery = true)
+    void createIfAbsent(@Param("name") String name);
+
+    // A job's checkpoint row doubles as its lock: incremental updates of the aggregates a rebuild writes hold it
+    // shared until they commit, and the rebuild holds it exclusively
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT c FROM JobCheckpoint c WHERE c.name = :name")
+    Optional<JobCheckpoint> lockShared(@Param("name") String name);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM JobCheckpoint c WHERE c.name = :name")
+    Optional<JobCheckpoint> lockExclusive(@Param("name") String name);
+}
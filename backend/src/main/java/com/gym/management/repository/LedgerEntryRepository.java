@@ -0,0 +1,34 @@
+package com.gym.management.repository;
+
+import com.gym.management.model.LedgerEntry;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+
+    // Snapshot plus unfolded tail in one statement, so a concurrent fold is seen either entirely or not at all
+    @Query(value = "SELECT COALESCE((SELECT s.balance_minor FROM wallet_snapshot s WHERE s.wallet_id = :walletId), 0) "
+            + "+ COALESCE((SELECT SUM(e.amount_minor) FROM ledger_entry e "
+            + "WHERE e.wallet_id = :walletId AND e.folded = false), 0)", nativeQuery = true)
+    long balanceMinor(@Param("walletId") Integer walletId);
+
+    // Read-only: the fold changes entries only through markFolded, so a batch is never dirty-checked at flush
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<LedgerEntry> findByFoldedFalseOrderByIdAsc(Pageable pageable);
+
+    @Modifying
+    @Query(value = "UPDATE ledger_entry SET folded = true WHERE id IN (:ids) AND folded = false", nativeQuery = true)
+    int markFolded(@Param("ids") List<Long> ids);
+
+    @Modifying
+    @Query(value = "UPDATE ledger_entry SET folded = true WHERE id <= :upToId AND folded = false", nativeQuery = true)
+    int markFoldedUpTo(@Param("upToId") Long upToId);
+}
@@ -1,9 +1,28 @@
 package com.gym.management.repository;
 
 import com.gym.management.model.Notification;
+import com.gym.management.repository.projection.NotificationSummary;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface NotificationRepository extends JpaRepository<Notification, Integer> {
     List<Notification> findByRecipientIdOrderByCreatedAtDesc(Integer userId);
+
+    @Query("SELECT new com.gym.management.repository.projection.NotificationSummary("
+            + "n.id, n.message, n.isRead, n.createdAt) "
+            + "FROM Notification n WHERE n.recipient.id = :userId ORDER BY n.createdAt DESC, n.id DESC")
+    List<NotificationSummary> findSummaries(@Param("userId") Integer userId, Pageable pageable);
+
+    @Query("SELECT new com.gym.management.repository.projection.NotificationSummary("
+            + "n.id, n.message, n.isRead, n.createdAt) "
+            + "FROM Notification n WHERE n.recipient.id = :userId "
+            + "AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id)) "
+            + "ORDER BY n.createdAt DESC, n.id DESC")
+    List<NotificationSummary> findSummariesBefore(@Param("userId") Integer userId,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") Integer id, Pageable pageable);
 }
@@ -0,0 +1,15 @@
+package com.gym.management.repository;
+
+import com.gym.management.model.ReconciliationRun;
+import com.gym.management.model.ReconciliationStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ReconciliationRunRepository extends JpaRepository<ReconciliationRun, Long> {
+
+    Optional<ReconciliationRun> findFirstByStatusNotOrderByIdDesc(ReconciliationStatus status);
+
+    List<ReconciliationRun> findTop20ByOrderByIdDesc();
+}
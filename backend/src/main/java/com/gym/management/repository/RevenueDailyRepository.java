@@ -0,0 +1,58 @@
+package com.gym.management.repository;
+
+import com.gym.management.model.RevenueDaily;
+import com.gym.management.model.TransactionType;
+import com.gym.management.repository.projection.DailyAmount;
+import com.gym.management.repository.projection.RevenueTotal;
+import com.gym.management.repository.projection.ServiceTypeAmount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface RevenueDailyRepository extends JpaRepository<RevenueDaily, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO revenue_daily (day, type, service_type, trainer_id, amount_minor, transactions, bookings) "
+            + "VALUES (:day, :type, :serviceType, :trainerId, :amountMinor, 1, :bookings) "
+            + "ON DUPLICATE KEY UPDATE amount_minor = amount_minor + :amountMinor, "
+            + "transactions = transactions + 1, bookings = bookings + :bookings", nativeQuery = true)
+    void add(@Param("day") LocalDate day, @Param("type") String type, @Param("serviceType") String serviceType,
+            @Param("trainerId") Integer trainerId, @Param("amountMinor") long amountMinor,
+            @Param("bookings") long bookings);
+
+    @Modifying
+    @Query("DELETE FROM RevenueDaily r WHERE r.day >= :from AND r.day < :before")
+    int deleteDays(@Param("from") LocalDate from, @Param("before") LocalDate before);
+
+    @Query("SELECT new com.gym.management.repository.projection.RevenueTotal(r.type, SUM(r.amountMinor), "
+            + "SUM(r.bookings)) FROM RevenueDaily r GROUP BY r.type")
+    List<RevenueTotal> sumByType();
+
+    @Query("SELECT new com.gym.management.repository.projection.DailyAmount(r.day, SUM(r.amountMinor)) "
+            + "FROM RevenueDaily r WHERE r.type = :type AND r.day >= :from GROUP BY r.day")
+    List<DailyAmount> sumByDaySince(@Param("type") TransactionType type, @Param("from") LocalDate from);
+
+    @Query("SELECT new com.gym.management.repository.projection.ServiceTypeAmount(r.serviceType, "
+            + "SUM(r.amountMinor)) FROM RevenueDaily r WHERE r.type = :type AND r.serviceType <> '' "
+            + "GROUP BY r.serviceType")
+    List<ServiceTypeAmount> sumByServiceType(@Param("type") TransactionType type);
+
+    @Query("SELECT new com.gym.management.repository.projection.RevenueTotal(r.type, SUM(r.amountMinor), "
+            + "SUM(r.bookings)) FROM RevenueDaily r WHERE r.day BETWEEN :from AND :to GROUP BY r.type")
+    List<RevenueTotal> sumByTypeBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT new com.gym.management.repository.projection.DailyAmount(r.day, SUM(r.amountMinor)) "
+            + "FROM RevenueDaily r WHERE r.type = :type AND r.day BETWEEN :from AND :to GROUP BY r.day")
+    List<DailyAmount> sumByDayBetween(@Param("type") TransactionType type, @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    @Query("SELECT new com.gym.management.repository.projection.ServiceTypeAmount(r.serviceType, "
+            + "SUM(r.amountMinor)) FROM RevenueDaily r WHERE r.type = :type AND r.serviceType <> '' "
+            + "AND r.day BETWEEN :from AND :to GROUP BY r.serviceType")
+    List<ServiceTypeAmount> sumByServiceTypeBetween(@Param("type") TransactionType type,
+            @Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -1,9 +1,23 @@
 package com.gym.management.repository;
 
 import com.gym.management.model.Review;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
 import java.util.List;
 
 public interface ReviewRepository extends JpaRepository<Review, Integer> {
+    @EntityGraph(attributePaths = "user")
     List<Review> findByServiceId(Integer serviceId);
+
+    // Rows of [serviceId, rating, count] used to rebuild ServiceRating aggregates
+    @Query("SELECT r.service.id, r.rating, COUNT(r) FROM Review r GROUP BY r.service.id, r.rating")
+    List<Object[]> countByServiceAndRating();
+
+    // Rows of [trainerId, year, month, ratingSum, reviews] used to rebuild trainer aggregates
+    @Query("SELECT s.trainer.id, YEAR(r.createdAt), MONTH(r.createdAt), SUM(r.rating), COUNT(r) FROM Review r "
+            + "JOIN r.service s WHERE s.trainer IS NOT NULL AND r.createdAt IS NOT NULL AND r.rating BETWEEN 1 AND 5 "
+            + "GROUP BY s.trainer.id, YEAR(r.createdAt), MONTH(r.createdAt)")
+    List<Object[]> sumRatingsByTrainerAndMonth();
 }
@@ -0,0 +1,20 @@
+package com.gym.management.repository;
+
+import com.gym.management.model.ServiceRating;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface ServiceRatingRepository extends JpaRepository<ServiceRating, Integer> {
+
+    @Modifying
+    @Query(value = "INSERT INTO service_rating "
+            + "(service_id, rating_sum, review_count, one_star, two_star, three_star, four_star, five_star) "
+            + "VALUES (:serviceId, :rating, 1, :rating = 1, :rating = 2, :rating = 3, :rating = 4, :rating = 5) "
+            + "ON DUPLICATE KEY UPDATE rating_sum = rating_sum + :rating, review_count = review_count + 1, "
+            + "one_star = one_star + (:rating = 1), two_star = two_star + (:rating = 2), "
+            + "three_star = three_star + (:rating = 3), four_star = four_star + (:rating = 4), "
+            + "five_star = five_star + (:rating = 5)", nativeQuery = true)
+    void addRating(@Param("serviceId") Integer serviceId, @Param("rating") Integer rating);
+}
@@ -0,0 +1,43 @@
+package com.gym.management.repository;
+
+import com.gym.management.model.ServiceSlot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface ServiceSlotRepository extends JpaRepository<ServiceSlot, Integer> {
+
+    Optional<ServiceSlot> findByServiceIdAndStartTime(Integer serviceId, LocalDateTime startTime);
+
+    boolean existsByServiceIdAndStartTime(Integer serviceId, LocalDateTime startTime);
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO service_slot (service_id, start_time, capacity, booked) "
+            + "VALUES (:serviceId, :startTime, :capacity, 0) "
+            + "ON DUPLICATE KEY UPDATE capacity = capacity", nativeQuery = true)
+    void createIfAbsent(@Param("serviceId") Integer serviceId, @Param("startTime") LocalDateTime startTime,
+            @Param("capacity") Integer capacity);
+
+    @Modifying
+    @Query("UPDATE ServiceSlot s SET s.booked = s.booked + 1 "
+            + "WHERE s.serviceId = :serviceId AND s.startTime = :startTime AND s.booked < s.capacity")
+    int claimSeat(@Param("serviceId") Integer serviceId, @Param("startTime") LocalDateTime startTime);
+
+    // The slot's capacity when the seat just claimed was its first, i.e. the claim opened the session
+    @Query("SELECT s.capacity FROM ServiceSlot s WHERE s.serviceId = :serviceId AND s.startTime = :startTime "
+            + "AND s.booked = 1")
+    Optional<Integer> findCapacityIfFirstSeat(@Param("serviceId") Integer serviceId,
+            @Param("startTime") LocalDateTime startTime);
+
+    // Rows of [trainerId, seats booked, seats offered] over sessions with bookings
+    @Query("SELECT g.trainer.id, SUM(s.booked), SUM(s.capacity) FROM ServiceSlot s JOIN GymService g "
+            + "ON g.id = s.serviceId WHERE s.booked > 0 AND g.trainer IS NOT NULL GROUP BY g.trainer.id")
+    List<Object[]> sumSeatsByTrainer();
+}
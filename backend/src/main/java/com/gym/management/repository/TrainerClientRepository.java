@@ -0,0 +1,27 @@
+package com.gym.management.repository;
+
+import com.gym.management.model.TrainerClient;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface TrainerClientRepository extends JpaRepository<TrainerClient, Long> {
+
+    // 1 when the member is new to this trainer, 0 when they have booked before
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO trainer_client (trainer_id, user_id) VALUES (:trainerId, :userId)",
+            nativeQuery = true)
+    int addIfAbsent(@Param("trainerId") Integer trainerId, @Param("userId") Integer userId);
+
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO trainer_client (trainer_id, user_id) "
+            + "SELECT DISTINCT s.trainer_id, b.user_id FROM booking b JOIN gym_service s ON s.id = b.service_id "
+            + "WHERE s.trainer_id IS NOT NULL AND b.user_id IS NOT NULL", nativeQuery = true)
+    int addFromBookings();
+
+    @Query("SELECT c.trainerId, COUNT(c) FROM TrainerClient c GROUP BY c.trainerId")
+    List<Object[]> countByTrainer();
+}
@@ -0,0 +1,25 @@
+package com.gym.management.repository;
+
+import com.gym.management.model.TrainerMonthly;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface TrainerMonthlyRepository extends JpaRepository<TrainerMonthly, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO trainer_monthly (trainer_id, month, bookings, earnings_minor, rating_sum, "
+            + "review_count) VALUES (:trainerId, :month, :bookings, :earningsMinor, :ratingSum, :reviewCount) "
+            + "ON DUPLICATE KEY UPDATE bookings = bookings + :bookings, "
+            + "earnings_minor = earnings_minor + :earningsMinor, rating_sum = rating_sum + :ratingSum, "
+            + "review_count = review_count + :reviewCount", nativeQuery = true)
+    void add(@Param("trainerId") Integer trainerId, @Param("month") LocalDate month, @Param("bookings") long bookings,
+            @Param("earningsMinor") long earningsMinor, @Param("ratingSum") long ratingSum,
+            @Param("reviewCount") long reviewCount);
+
+    List<TrainerMonthly> findByTrainerIdAndMonthGreaterThanEqualOrderByMonth(Integer trainerId, LocalDate from);
+}
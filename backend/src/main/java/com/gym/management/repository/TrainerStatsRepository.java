@@ -0,0 +1,23 @@
+package com.gym.management.repository;
+
+import com.gym.management.model.TrainerStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface TrainerStatsRepository extends JpaRepository<TrainerStats, Integer> {
+
+    @Modifying
+    @Query(value = "INSERT INTO trainer_stats (trainer_id, bookings, clients, earnings_minor, seats_booked, "
+            + "seats_offered, rating_sum, review_count) VALUES (:trainerId, :bookings, :clients, :earningsMinor, "
+            + ":seatsBooked, :seatsOffered, :ratingSum, :reviewCount) "
+            + "ON DUPLICATE KEY UPDATE bookings = bookings + :bookings, clients = clients + :clients, "
+            + "earnings_minor = earnings_minor + :earningsMinor, seats_booked = seats_booked + :seatsBooked, "
+            + "seats_offered = seats_offered + :seatsOffered, rating_sum = rating_sum + :ratingSum, "
+            + "review_count = review_count + :reviewCount", nativeQuery = true)
+    void add(@Param("trainerId") Integer trainerId, @Param("bookings") long bookings, @Param("clients") long clients,
+            @Param("earningsMinor") long earningsMinor, @Param("seatsBooked") long seatsBooked,
+            @Param("seatsOffered") long seatsOffered, @Param("ratingSum") long ratingSum,
+            @Param("reviewCount") long reviewCount);
+}
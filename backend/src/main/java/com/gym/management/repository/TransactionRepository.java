@@ -1,11 +1,86 @@
 package com.gym.management.repository;
 
 import com.gym.management.model.Transaction;
+import com.gym.management.model.TransactionStatus;
+import com.gym.management.model.TransactionType;
+import com.gym.management.repository.projection.PlatformStats;
+import com.gym.management.repository.projection.TransactionAmount;
+import com.gym.management.repository.projection.TransactionDayTotal;
+import com.gym.management.repository.projection.TransactionFact;
+import com.gym.management.repository.projection.TransactionSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Integer> {
     List<Transaction> findByWalletId(Integer walletId);
 
     List<Transaction> findByWalletIdOrderByCreatedAtDesc(Integer walletId);
+
+    @Query("SELECT new com.gym.management.repository.projection.TransactionSummary("
+            + "t.id, t.amount, t.type, t.status, t.gateway, t.transactionId, t.createdAt) "
+            + "FROM Transaction t WHERE t.id < :beforeId ORDER BY t.id DESC")
+    List<TransactionSummary> findSummariesBefore(@Param("beforeId") Integer beforeId, Pageable pageable);
+
+    @Query("SELECT new com.gym.management.repository.projection.TransactionSummary("
+            + "t.id, t.amount, t.type, t.status, t.gateway, t.transactionId, t.createdAt) "
+            + "FROM Transaction t WHERE t.wallet.id = :walletId AND t.id < :beforeId ORDER BY t.id DESC")
+    List<TransactionSummary> findSummariesByWalletBefore(@Param("walletId") Integer walletId,
+            @Param("beforeId") Integer beforeId, Pageable pageable);
+
+    // MySQL Connector/J streams rows one at a time only when the fetch size is Integer.MIN_VALUE
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    @Query("SELECT new com.gym.management.repository.projection.TransactionSummary("
+            + "t.id, t.amount, t.type, t.status, t.gateway, t.transactionId, t.createdAt) "
+            + "FROM Transaction t ORDER BY t.id")
+    Stream<TransactionSummary> streamSummaries();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    @Query("SELECT new com.gym.management.repository.projection.TransactionAmount(t.wallet.id, t.type, t.amount) "
+            + "FROM Transaction t WHERE t.wallet.id BETWEEN :fromWalletId AND :toWalletId "
+            + "AND t.status = :status")
+    Stream<TransactionAmount> streamAmountsByWalletRange(@Param("fromWalletId") Integer fromWalletId,
+            @Param("toWalletId") Integer toWalletId, @Param("status") TransactionStatus status);
+
+    @Query("SELECT new com.gym.management.repository.projection.TransactionDayTotal("
+            + "EXTRACT(DATE FROM t.createdAt), t.type, COUNT(t), SUM(t.amount)) FROM Transaction t "
+            + "WHERE t.status = :status AND t.type IN :types AND t.createdAt >= :from AND t.createdAt < :before "
+            + "GROUP BY EXTRACT(DATE FROM t.createdAt), t.type")
+    List<TransactionDayTotal> sumByDayAndType(@Param("status") TransactionStatus status,
+            @Param("types") Collection<TransactionType> types, @Param("from") LocalDateTime from,
+            @Param("before") LocalDateTime before);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    @Query("SELECT new com.gym.management.repository.projection.TransactionFact("
+            + "t.id, t.createdAt, t.type, t.status, t.gateway, w.user.id, t.amount) "
+            + "FROM Transaction t JOIN t.wallet w WHERE t.createdAt >= :since")
+    Stream<TransactionFact> streamFactsSince(@Param("since") LocalDateTime since);
+
+    // Rows of [wallet owner id, year, month, amount] used to rebuild trainer aggregates
+    @Query("SELECT w.user.id, YEAR(t.createdAt), MONTH(t.createdAt), SUM(t.amount) FROM Transaction t "
+            + "JOIN t.wallet w WHERE t.type = :type AND t.status = :status AND t.createdAt IS NOT NULL "
+            + "GROUP BY w.user.id, YEAR(t.createdAt), MONTH(t.createdAt)")
+    List<Object[]> sumByOwnerAndMonth(@Param("type") TransactionType type, @Param("status") TransactionStatus status);
+
+    // Dashboard counters in one statement: the commission total sums the COMMISSION rows themselves, which the
+    // type index covers, and the counts come from scalar subqueries, so a refresh is a single round trip
+    @Query("SELECT new com.gym.management.repository.projection.PlatformStats("
+            + "(SELECT COUNT(u) FROM User u), (SELECT COUNT(s) FROM GymService s), (SELECT COUNT(b) FROM Booking b), "
+            + "COALESCE(SUM(t.amount), 0)) FROM Transaction t WHERE t.type = :commission")
+    PlatformStats findPlatformStats(@Param("commission") TransactionType commission);
 }
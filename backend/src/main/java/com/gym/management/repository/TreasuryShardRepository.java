@@ -0,0 +1,28 @@
+package com.gym.management.repository;
+
+import com.gym.management.model.TreasuryShard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface TreasuryShardRepository extends JpaRepository<TreasuryShard, Integer> {
+
+    List<TreasuryShard> findByBalanceMinorNot(Long balanceMinor);
+
+    @Query("SELECT COALESCE(SUM(s.balanceMinor), 0) FROM TreasuryShard s")
+    long sumBalances();
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO treasury_shard (shard, balance_minor) VALUES (:shard, 0) "
+            + "ON DUPLICATE KEY UPDATE shard = shard", nativeQuery = true)
+    void createIfAbsent(@Param("shard") Integer shard);
+
+    @Modifying
+    @Query("UPDATE TreasuryShard s SET s.balanceMinor = s.balanceMinor + :amountMinor WHERE s.shard = :shard")
+    int add(@Param("shard") Integer shard, @Param("amountMinor") long amountMinor);
+}
@@ -2,13 +2,40 @@ package com.gym.management.repository;
 
 import com.gym.management.model.User;
 import com.gym.management.model.Role;
+import com.gym.management.repository.projection.UserSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface UserRepository extends JpaRepository<User, Integer> {
     Optional<User> findByEmail(String email);
 
     List<User> findByRole(Role role);
+
+    Optional<User> findFirstByRoleInOrderByIdAsc(Collection<Role> roles);
+
+    @Query("SELECT u.id FROM User u WHERE u.avatar LIKE 'data:%'")
+    List<Integer> findIdsWithInlineAvatar();
+
+    @Query("SELECT new com.gym.management.repository.projection.UserSummary("
+            + "u.id, u.firstname, u.lastname, u.email, u.avatar, u.role, u.enabled) "
+            + "FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<UserSummary> findSummariesAfter(@Param("afterId") Integer afterId, Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    @Query("SELECT new com.gym.management.repository.projection.UserSummary("
+            + "u.id, u.firstname, u.lastname, u.email, u.avatar, u.role, u.enabled) "
+            + "FROM User u ORDER BY u.id")
+    Stream<UserSummary> streamSummaries();
 }
@@ -0,0 +1,12 @@
+package com.gym.management.repository;
+
+import com.gym.management.model.WalletDiscrepancy;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface WalletDiscrepancyRepository extends JpaRepository<WalletDiscrepancy, Long> {
+
+    List<WalletDiscrepancy> findByRunIdAndIdGreaterThanOrderById(Long runId, Long afterId, Pageable pageable);
+}
@@ -2,11 +2,54 @@ package com.gym.management.repository;
 
 import com.gym.management.model.Wallet;
 import com.gym.management.model.User;
+import com.gym.management.repository.projection.WalletBalance;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 import java.util.Optional;
 
 public interface WalletRepository extends JpaRepository<Wallet, Integer> {
     Optional<Wallet> findByUser(User user);
 
     Optional<Wallet> findByUserId(Integer userId);
+
+    @Query("SELECT w.id FROM Wallet w WHERE w.user.id = :userId")
+    Optional<Integer> findIdByUserId(@Param("userId") Integer userId);
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO wallet (user_id, balance) VALUES (:userId, 0) "
+            + "ON DUPLICATE KEY UPDATE user_id = user_id", nativeQuery = true)
+    void createIfAbsent(@Param("userId") Integer userId);
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO wallet (user_id, balance) SELECT u.id, 0 FROM _user u "
+            + "LEFT JOIN wallet w ON w.user_id = u.id WHERE w.id IS NULL", nativeQuery = true)
+    int createMissing();
+
+    @Query("SELECT new com.gym.management.repository.projection.WalletBalance(w.id, w.balance) "
+            + "FROM Wallet w WHERE w.balance <> 0")
+    List<WalletBalance> findNonZeroBalances();
+
+    @Query("SELECT new com.gym.management.repository.projection.WalletBalance(w.id, w.balance) "
+            + "FROM Wallet w WHERE w.id BETWEEN :fromId AND :toId")
+    List<WalletBalance> findBalancesBetween(@Param("fromId") Integer fromId, @Param("toId") Integer toId);
+
+    @Query("SELECT COALESCE(MAX(w.id), 0) FROM Wallet w")
+    int findMaxId();
+
+    // Balance changes are single statements: the row count says whether they applied, and the row is locked
+    // only by the UPDATE itself rather than across a read-check-write in Java
+    @Modifying
+    @Query("UPDATE Wallet w SET w.balance = w.balance + :amount WHERE w.id = :id")
+    int credit(@Param("id") Integer id, @Param("amount") Double amount);
+
+    @Modifying
+    @Query("UPDATE Wallet w SET w.balance = w.balance - :amount WHERE w.id = :id AND w.balance >= :amount")
+    int debit(@Param("id") Integer id, @Param("amount") Double amount);
 }
@@ -0,0 +1,17 @@
+package com.gym.management.repository;
+
+import com.gym.management.model.WalletSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface WalletSnapshotRepository extends JpaRepository<WalletSnapshot, Integer> {
+
+    @Modifying
+    @Query(value = "INSERT INTO wallet_snapshot (wallet_id, balance_minor, taken_at) "
+            + "VALUES (:walletId, :amountMinor, CURRENT_TIMESTAMP) "
+            + "ON DUPLICATE KEY UPDATE balance_minor = balance_minor + :amountMinor, "
+            + "taken_at = CURRENT_TIMESTAMP", nativeQuery = true)
+    void fold(@Param("walletId") Integer walletId, @Param("amountMinor") Long amountMinor);
+}
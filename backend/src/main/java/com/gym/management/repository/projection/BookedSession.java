@@ -0,0 +1,6 @@
+package com.gym.management.repository.projection;
+
+import java.time.LocalDateTime;
+
+public record BookedSession(Integer serviceId, LocalDateTime start, Integer sessionMinutes, Long bookings) {
+}
@@ -0,0 +1,9 @@
+package com.gym.management.repository.projection;
+
+import com.gym.management.model.ServiceType;
+
+import java.time.LocalDate;
+
+public record BookingDayTotal(LocalDate day, ServiceType serviceType, Integer trainerId, Long bookings,
+        Long payments, Double amount) {
+}
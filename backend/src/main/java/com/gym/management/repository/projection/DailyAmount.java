@@ -0,0 +1,6 @@
+package com.gym.management.repository.projection;
+
+import java.time.LocalDate;
+
+public record DailyAmount(LocalDate day, Long amountMinor) {
+}
@@ -0,0 +1,6 @@
+package com.gym.management.repository.projection;
+
+import java.time.LocalDateTime;
+
+public record NotificationSummary(Integer id, String message, boolean isRead, LocalDateTime createdAt) {
+}
@@ -0,0 +1,4 @@
+package com.gym.management.repository.projection;
+
+public record PlatformStats(long users, long services, long bookings, Double commission) {
+}
@@ -0,0 +1,9 @@
+package com.gym.management.repository.projection;
+
+import com.gym.management.model.ServiceStatus;
+import com.gym.management.model.ServiceType;
+
+public record ServiceSummary(Integer id, String name, String address, String description, Double price,
+        ServiceType type, ServiceStatus status, String image, Double latitude, Double longitude, Integer trainerId,
+        String trainerFirstname, String trainerLastname, Long ratingSum, Integer reviewCount) {
+}
@@ -0,0 +1,6 @@
+package com.gym.management.repository.projection;
+
+import com.gym.management.model.TransactionType;
+
+public record TransactionAmount(Integer walletId, TransactionType type, Double amount) {
+}
@@ -0,0 +1,8 @@
+package com.gym.management.repository.projection;
+
+import com.gym.management.model.TransactionType;
+
+import java.time.LocalDate;
+
+public record TransactionDayTotal(LocalDate day, TransactionType type, Long transactions, Double amount) {
+}
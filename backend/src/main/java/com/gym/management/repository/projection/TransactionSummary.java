@@ -0,0 +1,10 @@
+package com.gym.management.repository.projection;
+
+import com.gym.management.model.TransactionStatus;
+import com.gym.management.model.TransactionType;
+
+import java.time.LocalDateTime;
+
+public record TransactionSummary(Integer id, Double amount, TransactionType type, TransactionStatus status,
+        String gateway, String transactionId, LocalDateTime createdAt) {
+}
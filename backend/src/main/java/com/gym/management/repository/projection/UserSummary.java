@@ -0,0 +1,7 @@
+package com.gym.management.repository.projection;
+
+import com.gym.management.model.Role;
+
+public record UserSummary(Integer id, String firstname, String lastname, String email, String avatar, Role role,
+        boolean enabled) {
+}
@@ -0,0 +1,4 @@
+package com.gym.management.repository.projection;
+
+public record WalletAmount(Integer walletId, Long amountMinor) {
+}
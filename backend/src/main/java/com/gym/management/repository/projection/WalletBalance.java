@@ -0,0 +1,4 @@
+package com.gym.management.repository.projection;
+
+public record WalletBalance(Integer walletId, Double balance) {
+}
@@ -0,0 +1,46 @@
+package com.gym.management.security;
+
+import com.gym.management.config.QueryCountInspector;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    @Value("${sql.query-budget}")
+    private int queryBudget;
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+        QueryCountInspector.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int count = QueryCountInspector.stop();
+            // The budget is for reads; a booking or top-up runs its writes, audit rows and ledger entries on top
+            if (HttpMethod.GET.matches(request.getMethod()) && count > queryBudget) {
+                log.warn("{} {} ran {} SQL statements (budget {})", request.getMethod(), request.getRequestURI(),
+                        count, queryBudget);
+            } else {
+                log.debug("{} {} ran {} SQL statements", request.getMethod(), request.getRequestURI(), count);
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.gym.management.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.gym.management.model.TransactionType;
+import com.gym.management.repository.TransactionRepository;
+import com.gym.management.repository.projection.PlatformStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+// Admin dashboard figures, aggregated in the database and reused for up to the configured staleness, so
+// dashboard refreshes cost one query per interval however large the tables grow
+@Service
+public class AnalyticsService {
+
+    private final LoadingCache<String, PlatformStats> stats;
+
+    public AnalyticsService(TransactionRepository transactionRepository,
+            @Value("${analytics.stats.max-staleness-seconds}") long maxStalenessSeconds) {
+        this.stats = Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(Duration.ofSeconds(maxStalenessSeconds))
+                .build(key -> transactionRepository.findPlatformStats(TransactionType.COMMISSION));
+    }
+
+    public Map<String, Object> getStats() {
+        PlatformStats platform = stats.get("platform");
+        Map<String, Object> result = new HashMap<>();
+        result.put("totalUsers", platform.users());
+        result.put("totalServices", platform.services());
+        result.put("totalBookings", platform.bookings());
+        // Platform Profit (Commission sum). Unlike the revenue report's rollups, this leaves out commission booked
+        // while no treasury wallet existed and counts backfilled days from their COMMISSION rows
+        result.put("totalRevenue", platform.commission());
+        return result;
+    }
+}
@@ -23,6 +23,8 @@ public class AuthenticationService {
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
     private final EmailService emailService;
+    private final TreasuryService treasuryService;
+    private final WalletService walletService;
 
     public AuthenticationResponse register(RegisterRequest request) {
         var user = User.builder()
@@ -34,6 +36,8 @@ public class AuthenticationService {
                 .enabled(true)
                 .build();
         repository.save(user);
+        walletService.openWallet(user);
+        treasuryService.onUserChanged(user);
         var jwtToken = jwtService.generateToken(user);
         return AuthenticationResponse.builder()
                 .token(jwtToken)
@@ -90,7 +94,9 @@ public class AuthenticationService {
                     .role(Role.MEMBER)
                     .enabled(true)
                     .build();
-            return repository.save(newUser);
+            User saved = repository.save(newUser);
+            walletService.openWallet(saved);
+            return saved;
         });
         var jwtToken = jwtService.generateToken(user);
         return AuthenticationResponse.builder()
@@ -2,15 +2,21 @@ package com.gym.management.service;
 
 import com.gym.management.model.Booking;
 import com.gym.management.model.GymService;
+import com.gym.management.model.OutboxEventType;
 import com.gym.management.model.User;
 import com.gym.management.repository.BookingRepository;
 import com.gym.management.repository.GymServiceRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.DayOfWeek;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -19,17 +25,26 @@ public class BookingService {
     private final BookingRepository bookingRepository;
     private final GymServiceRepository gymServiceRepository;
     private final WalletService walletService;
-    private final NotificationService notificationService;
+    private final OutboxService outboxService;
+    private final SlotService slotService;
+    private final TrainerSchedule trainerSchedule;
+    private final TrainerAnalyticsService trainerAnalytics;
 
     @Transactional
     public Booking createBooking(User user, Integer serviceId, LocalDateTime bookingDate) {
         GymService service = gymServiceRepository.findById(serviceId)
                 .orElseThrow(() -> new RuntimeException("Training program not found"));
 
+        slotService.checkAvailable(service, bookingDate);
+        if (bookingDate != null) {
+            bookingDate = slotService.slotStart(bookingDate);
+        }
+        trainerSchedule.reserve(service, bookingDate);
+
         Double total = service.getPrice();
 
         // 1. Process Payment (15% commission already handled in walletService)
-        walletService.transferBookingFunds(user, service.getTrainer(), total);
+        walletService.transferBookingFunds(user, service, total, 1);
 
         // 2. Create Booking
         Booking booking = Booking.builder()
@@ -42,23 +57,81 @@ public class BookingService {
 
         Booking saved = bookingRepository.save(booking);
 
-        // 3. Notify Trainer
-        notificationService.createNotification(service.getTrainer(),
-                "New booking for '" + service.getName() + "' by athlete " + user.getFirstname() + ". You earned ₹"
-                        + (total * 0.85));
+        // 3. Trainer and athlete notifications go out through the outbox, after this transaction commits
+        outboxService.publish(OutboxEventType.BOOKING_CONFIRMED, saved.getId());
+
+        // 4. Claim the seat last, after flushing the wallet updates, so the slot row stays locked only for the commit
+        bookingRepository.flush();
+        int seatsOpened = slotService.claimSeat(service, bookingDate);
+
+        // 5. Trainer aggregates, touched last for the same reason
+        trainerAnalytics.recordBookings(service, user, 1, slotService.capacityOf(service) == null ? 0 : 1, seatsOpened);
+
+        return saved;
+    }
+
+    // Validates every session before any money moves, then debits the wallet once for the whole series
+    @Transactional
+    public List<Booking> createBookings(User user, Integer serviceId, List<LocalDateTime> bookingDates) {
+        GymService service = gymServiceRepository.findById(serviceId)
+                .orElseThrow(() -> new RuntimeException("Training program not found"));
+
+        List<LocalDateTime> sessions = bookingDates.stream().map(slotService::slotStart).distinct().sorted().toList();
+        for (LocalDateTime session : sessions) {
+            slotService.checkAvailable(service, session);
+            trainerSchedule.reserve(service, session);
+        }
+
+        // 1. One payment for all sessions
+        Double total = service.getPrice() * sessions.size();
+        walletService.transferBookingFunds(user, service, total, sessions.size());
 
-        // 4. Notify Athlete (Member)
-        notificationService.createNotification(user,
-                "Training session confirmed for " + service.getName() + "! Get ready to grind.");
+        // 2. Create Bookings
+        String seriesId = UUID.randomUUID().toString();
+        List<Booking> saved = bookingRepository.saveAll(sessions.stream()
+                .map(session -> Booking.builder()
+                        .user(user)
+                        .service(service)
+                        .bookingDate(session)
+                        .totalAmount(service.getPrice())
+                        .status("CONFIRMED")
+                        .seriesId(seriesId)
+                        .build())
+                .toList());
+
+        // 3. A single summary notification for the series
+        outboxService.publish(OutboxEventType.BOOKING_SERIES_CONFIRMED, saved.get(0).getId());
+
+        // 4. Claim seats last, as in createBooking, then update the trainer aggregates
+        bookingRepository.flush();
+        int seatsOpened = 0;
+        for (LocalDateTime session : sessions) {
+            seatsOpened += slotService.claimSeat(service, session);
+        }
+        trainerAnalytics.recordBookings(service, user, sessions.size(),
+                slotService.capacityOf(service) == null ? 0 : sessions.size(), seatsOpened);
 
         return saved;
     }
 
-    public List<Booking> getMyBookings(User user) {
-        return bookingRepository.findByUserId(user.getId());
+    public List<LocalDateTime> weeklySessions(LocalDateTime firstSession, Set<DayOfWeek> daysOfWeek, int weeks) {
+        List<LocalDateTime> sessions = new ArrayList<>();
+        for (int day = 0; day < weeks * 7; day++) {
+            LocalDateTime session = firstSession.plusDays(day);
+            if (daysOfWeek.contains(session.getDayOfWeek())) {
+                sessions.add(session);
+            }
+        }
+        return sessions;
+    }
+
+    public List<Booking> getMyBookings(User user, Integer beforeId, int limit) {
+        return bookingRepository.findByUserIdAndIdLessThanOrderByIdDesc(user.getId(), beforeId,
+                PageRequest.of(0, limit));
     }
 
-    public List<Booking> getTrainerBookings(User trainer) {
-        return bookingRepository.findByServiceTrainerId(trainer.getId());
+    public List<Booking> getTrainerBookings(User trainer, Integer beforeId, int limit) {
+        return bookingRepository.findByServiceTrainerIdAndIdLessThanOrderByIdDesc(trainer.getId(), beforeId,
+                PageRequest.of(0, limit));
     }
 }
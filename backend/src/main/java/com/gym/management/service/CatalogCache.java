@@ -0,0 +1,102 @@
+package com.gym.management.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.gym.management.dto.GymServiceResponse;
+import com.gym.management.model.GymService;
+import com.gym.management.model.ServiceStatus;
+import com.gym.management.model.ServiceType;
+import com.gym.management.repository.GymServiceRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+@Service
+public class CatalogCache {
+
+    private static final String ALL_TYPES = "ALL";
+
+    private final GymServiceRepository gymServiceRepository;
+    private final ContentVersions contentVersions;
+    private final Cache<String, List<GymServiceResponse>> cache;
+
+    public CatalogCache(GymServiceRepository gymServiceRepository, ContentVersions contentVersions,
+            @Value("${catalog.cache.max-size}") long maxSize,
+            @Value("${catalog.cache.ttl-minutes}") long ttlMinutes) {
+        this.gymServiceRepository = gymServiceRepository;
+        this.contentVersions = contentVersions;
+        // Caffeine's W-TinyLFU eviction keeps the frequently requested type lists resident
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+    }
+
+    public List<GymServiceResponse> getApprovedServices(ServiceType type, Supplier<List<GymServiceResponse>> loader) {
+        return cache.get(key(type), k -> List.copyOf(loader.get()));
+    }
+
+    // Only approved services are listed, so other status transitions leave the catalog untouched
+    public void onStatusChange(GymService service, ServiceStatus previousStatus) {
+        contentVersions.serviceChanged(service.getId());
+        if (previousStatus == ServiceStatus.APPROVED || service.getStatus() == ServiceStatus.APPROVED) {
+            evictType(service.getType());
+        }
+    }
+
+    public void onReview(GymService service) {
+        contentVersions.serviceChanged(service.getId());
+        contentVersions.reviewsChanged(service.getId());
+        evictIfListed(service);
+    }
+
+    public void onUserUpdate(Integer userId) {
+        contentVersions.userChanged();
+        gymServiceRepository.findByTrainerId(userId).forEach(service -> {
+            contentVersions.serviceChanged(service.getId());
+            evictIfListed(service);
+        });
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+        contentVersions.allChanged();
+    }
+
+    public Map<String, Object> getStats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", cache.estimatedSize());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        result.put("averageLoadMillis", stats.averageLoadPenalty() / 1_000_000.0);
+        return result;
+    }
+
+    private void evictIfListed(GymService service) {
+        if (service.getStatus() == ServiceStatus.APPROVED) {
+            evictType(service.getType());
+        }
+    }
+
+    private void evictType(ServiceType type) {
+        contentVersions.catalogChanged();
+        cache.invalidate(ALL_TYPES);
+        if (type != null) {
+            cache.invalidate(type.name());
+        }
+    }
+
+    private String key(ServiceType type) {
+        return type == null ? ALL_TYPES : type.name();
+    }
+}
@@ -0,0 +1,62 @@
+package com.gym.management.service;
+
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Modification counters behind the ETags of the public catalog, service detail and review endpoints
+@Service
+public class ContentVersions {
+
+    // Counters live in memory, so ETags handed out before a restart must never match again
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong catalog = new AtomicLong();
+    private final AtomicLong users = new AtomicLong();
+    private final Map<Integer, AtomicLong> services = new ConcurrentHashMap<>();
+    private final Map<Integer, AtomicLong> reviews = new ConcurrentHashMap<>();
+
+    public String catalogETag() {
+        return etag("c" + catalog.get());
+    }
+
+    public String serviceETag(Integer serviceId) {
+        return etag("s" + serviceId + "." + version(services, serviceId));
+    }
+
+    // Review lists show reviewer names, so any profile edit also invalidates them
+    public String reviewsETag(Integer serviceId) {
+        return etag("r" + serviceId + "." + version(reviews, serviceId) + "." + users.get());
+    }
+
+    public void catalogChanged() {
+        catalog.incrementAndGet();
+    }
+
+    public void serviceChanged(Integer serviceId) {
+        services.computeIfAbsent(serviceId, id -> new AtomicLong()).incrementAndGet();
+    }
+
+    public void reviewsChanged(Integer serviceId) {
+        reviews.computeIfAbsent(serviceId, id -> new AtomicLong()).incrementAndGet();
+    }
+
+    public void userChanged() {
+        users.incrementAndGet();
+    }
+
+    public void allChanged() {
+        generation.incrementAndGet();
+    }
+
+    private long version(Map<Integer, AtomicLong> counters, Integer id) {
+        AtomicLong counter = counters.get(id);
+        return counter == null ? 0 : counter.get();
+    }
+
+    private String etag(String version) {
+        return "\"" + epoch + "-" + generation.get() + "-" + version + "\"";
+    }
+}
@@ -0,0 +1,115 @@
+package com.gym.management.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.gym.management.dto.GymServiceResponse;
+import com.gym.management.dto.TransactionResponse;
+import com.gym.management.dto.UserResponse;
+import com.gym.management.model.ServiceStatus;
+import com.gym.management.repository.GymServiceRepository;
+import com.gym.management.repository.TransactionRepository;
+import com.gym.management.repository.UserRepository;
+import com.gym.management.repository.projection.ServiceSummary;
+import com.gym.management.repository.projection.TransactionSummary;
+import com.gym.management.repository.projection.UserSummary;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+// Writes each row straight from the JDBC cursor to the response, so memory does not grow with table size
+@Service
+@RequiredArgsConstructor
+public class ExportService {
+
+    private final TransactionRepository transactionRepository;
+    private final UserRepository userRepository;
+    private final GymServiceRepository gymServiceRepository;
+    private final ImageService imageService;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public void exportTransactions(OutputStream out, boolean ndjson) throws IOException {
+        try (Stream<TransactionSummary> rows = transactionRepository.streamSummaries()) {
+            write(out, ndjson, rows, t -> TransactionResponse.builder()
+                    .id(t.id())
+                    .amount(t.amount())
+                    .type(t.type())
+                    .status(t.status())
+                    .gateway(t.gateway())
+                    .transactionId(t.transactionId())
+                    .createdAt(t.createdAt())
+                    .build());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportUsers(OutputStream out, boolean ndjson) throws IOException {
+        try (Stream<UserSummary> rows = userRepository.streamSummaries()) {
+            write(out, ndjson, rows, u -> UserResponse.builder()
+                    .id(u.id())
+                    .firstname(u.firstname())
+                    .lastname(u.lastname())
+                    .email(u.email())
+                    .avatar(imageService.toPublicUrl(u.avatar()))
+                    .role(u.role())
+                    .enabled(u.enabled())
+                    .build());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportServiceHistory(OutputStream out, boolean ndjson) throws IOException {
+        try (Stream<ServiceSummary> rows = gymServiceRepository.streamSummariesExcluding(ServiceStatus.PENDING)) {
+            write(out, ndjson, rows, s -> GymServiceResponse.builder()
+                    .id(s.id())
+                    .name(s.name())
+                    .address(s.address())
+                    .description(s.description())
+                    .price(s.price())
+                    .type(s.type())
+                    .category(s.type() != null ? s.type().name() : "Other")
+                    .status(s.status())
+                    .image(imageService.toPublicUrl(s.image()))
+                    .latitude(s.latitude())
+                    .longitude(s.longitude())
+                    .trainerId(s.trainerId())
+                    .trainerName(s.trainerFirstname() + " " + s.trainerLastname())
+                    .averageRating(s.reviewCount() == null || s.reviewCount() == 0 ? 0.0
+                            : (double) s.ratingSum() / s.reviewCount())
+                    .reviewCount(s.reviewCount() != null ? s.reviewCount() : 0)
+                    .build());
+        }
+    }
+
+    private <T, R> void write(OutputStream out, boolean ndjson, Stream<T> rows, Function<T, R> mapper)
+            throws IOException {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            // A failed export must not be closed off into a valid-looking but truncated document
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            if (ndjson) {
+                generator.setRootValueSeparator(new SerializedString("\n"));
+            } else {
+                generator.writeStartArray();
+            }
+            Iterator<T> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, mapper.apply(iterator.next()));
+            }
+            if (ndjson) {
+                generator.writeRaw('\n');
+            } else {
+                generator.writeEndArray();
+            }
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.gym.management.service;
+
+import com.gym.management.model.GymService;
+import com.gym.management.model.ServiceStatus;
+import com.gym.management.model.ServiceType;
+import com.gym.management.repository.GymServiceRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Uniform lat/lon grid over approved services; each cell holds the services whose coordinates fall in it
+@Service
+public class GeoIndex {
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+
+    private final GymServiceRepository gymServiceRepository;
+    private final double cellSize;
+    private final Map<Long, List<Point>> cells = new HashMap<>();
+    private final Map<Integer, Point> points = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public GeoIndex(GymServiceRepository gymServiceRepository,
+            @Value("${geo.index.cell-size-degrees}") double cellSize) {
+        this.gymServiceRepository = gymServiceRepository;
+        this.cellSize = cellSize;
+    }
+
+    public record Point(Integer serviceId, double latitude, double longitude, ServiceType type) {
+    }
+
+    public record Match(Integer serviceId, double distanceKm) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<GymService> approved = gymServiceRepository.findByStatus(ServiceStatus.APPROVED);
+        lock.writeLock().lock();
+        try {
+            cells.clear();
+            points.clear();
+            approved.forEach(this::insert);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void onStatusChange(GymService service) {
+        lock.writeLock().lock();
+        try {
+            remove(service.getId());
+            if (service.getStatus() == ServiceStatus.APPROVED) {
+                insert(service);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Match> withinRadius(double latitude, double longitude, double radiusKm, ServiceType type,
+            int limit) {
+        double latSpan = radiusKm / KM_PER_DEGREE;
+        // Longitude degrees shrink towards the poles, so size the box for the most poleward latitude it covers
+        double edgeLatitude = Math.min(90, Math.abs(latitude) + latSpan);
+        double lonSpan = radiusKm / (KM_PER_DEGREE * Math.max(Math.cos(Math.toRadians(edgeLatitude)), 0.01));
+        int minRow = row(Math.max(-90, latitude - latSpan));
+        int maxRow = row(Math.min(90, latitude + latSpan));
+        int minCol = col(longitude - lonSpan);
+        int maxCol = col(longitude + lonSpan);
+        int columns = columns();
+        if (maxCol - minCol + 1 >= columns) {
+            minCol = 0;
+            maxCol = columns - 1;
+        }
+
+        List<Match> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            // Very large radii touch more cells than there are points; a straight scan is cheaper then
+            if ((long) (maxRow - minRow + 1) * (maxCol - minCol + 1) > points.size()) {
+                for (Point p : points.values()) {
+                    collect(p, latitude, longitude, radiusKm, type, matches);
+                }
+            } else {
+                for (int r = minRow; r <= maxRow; r++) {
+                    for (int c = minCol; c <= maxCol; c++) {
+                        for (Point p : cells.getOrDefault(key(r, wrapCol(c)), List.of())) {
+                            collect(p, latitude, longitude, radiusKm, type, matches);
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        matches.sort(Comparator.comparingDouble(Match::distanceKm));
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    public List<Match> nearest(double latitude, double longitude, ServiceType type, int k) {
+        int centerRow = row(latitude);
+        int centerCol = col(longitude);
+
+        List<Match> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            int visited = 0;
+            for (int ring = 0; ; ring++) {
+                if (visited > points.size()) {
+                    matches.clear();
+                    for (Point p : points.values()) {
+                        collect(p, latitude, longitude, Double.MAX_VALUE, type, matches);
+                    }
+                    break;
+                }
+                for (int r = centerRow - ring; r <= centerRow + ring; r++) {
+                    for (int c = centerCol - ring; c <= centerCol + ring; c++) {
+                        if (Math.abs(r - centerRow) != ring && Math.abs(c - centerCol) != ring) {
+                            continue;
+                        }
+                        visited++;
+                        for (Point p : cells.getOrDefault(key(r, wrapCol(c)), List.of())) {
+                            collect(p, latitude, longitude, Double.MAX_VALUE, type, matches);
+                        }
+                    }
+                }
+                if (matches.size() >= k) {
+                    matches.sort(Comparator.comparingDouble(Match::distanceKm));
+                    // Unvisited cells are at least `ring` cells away; longitude cells narrow towards the poles
+                    double edgeLatitude = Math.min(90, Math.abs(latitude) + (ring + 1) * cellSize);
+                    double coveredKm = ring * cellSize * KM_PER_DEGREE * Math.cos(Math.toRadians(edgeLatitude));
+                    if (matches.get(k - 1).distanceKm() <= coveredKm) {
+                        break;
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        matches.sort(Comparator.comparingDouble(Match::distanceKm));
+        return matches.size() > k ? new ArrayList<>(matches.subList(0, k)) : matches;
+    }
+
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                        * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    private void collect(Point p, double latitude, double longitude, double radiusKm, ServiceType type,
+            List<Match> matches) {
+        if (type != null && type != p.type()) {
+            return;
+        }
+        double distance = distanceKm(latitude, longitude, p.latitude(), p.longitude());
+        if (distance <= radiusKm) {
+            matches.add(new Match(p.serviceId(), distance));
+        }
+    }
+
+    private void insert(GymService service) {
+        if (service.getLatitude() == null || service.getLongitude() == null) {
+            return;
+        }
+        Point point = new Point(service.getId(), service.getLatitude(), service.getLongitude(), service.getType());
+        points.put(point.serviceId(), point);
+        cells.computeIfAbsent(key(point), k -> new ArrayList<>()).add(point);
+    }
+
+    private void remove(Integer serviceId) {
+        Point point = points.remove(serviceId);
+        if (point != null) {
+            List<Point> cell = cells.get(key(point));
+            cell.remove(point);
+            if (cell.isEmpty()) {
+                cells.remove(key(point));
+            }
+        }
+    }
+
+    private int row(double latitude) {
+        return (int) Math.floor((latitude + 90) / cellSize);
+    }
+
+    private int col(double longitude) {
+        return (int) Math.floor((longitude + 180) / cellSize);
+    }
+
+    private int columns() {
+        return (int) Math.ceil(360 / cellSize);
+    }
+
+    private int wrapCol(int col) {
+        return Math.floorMod(col, columns());
+    }
+
+    private long key(Point p) {
+        return key(row(p.latitude()), wrapCol(col(p.longitude())));
+    }
+
+    private long key(int row, int col) {
+        return ((long) row << 32) | (col & 0xFFFFFFFFL);
+    }
+}
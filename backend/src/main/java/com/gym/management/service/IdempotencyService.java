@@ -0,0 +1,237 @@
+package com.gym.management.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.gym.management.model.IdempotencyRecord;
+import com.gym.management.model.User;
+import com.gym.management.repository.IdempotencyRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// Runs a request at most once per Idempotency-Key. Completed responses are kept in memory for microsecond
+// replays and in idempotency_record so they survive restarts and are shared between instances. The record is
+// completed in the request's own transaction, so a stored response exists exactly when the request's writes do.
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long DUPLICATE_WAIT_SECONDS = 30;
+
+    private final IdempotencyRecordRepository recordRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final Duration pendingTimeout;
+    private final Cache<String, Stored> completed;
+    private final Map<String, CompletableFuture<Stored>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRecordRepository recordRepository, ObjectMapper objectMapper,
+            TransactionTemplate transactionTemplate,
+            @Value("${idempotency.ttl-hours}") long ttlHours,
+            @Value("${idempotency.pending-timeout-seconds}") long pendingTimeoutSeconds,
+            @Value("${idempotency.cache.max-size}") long maxSize) {
+        this.recordRepository = recordRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.pendingTimeout = Duration.ofSeconds(pendingTimeoutSeconds);
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public <T> ResponseEntity<T> execute(User user, String scope, String key, Object request, Class<T> responseType,
+            Supplier<ResponseEntity<T>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        String id = sha256(user.getId() + ":" + scope + ":" + key);
+        String requestHash = sha256(toJson(request));
+
+        while (true) {
+            Stored stored = completed.getIfPresent(id);
+            if (stored != null) {
+                return replay(stored, requestHash, responseType);
+            }
+            CompletableFuture<Stored> attempt = new CompletableFuture<>();
+            CompletableFuture<Stored> running = inFlight.putIfAbsent(id, attempt);
+            if (running == null) {
+                try {
+                    return runFirst(id, requestHash, responseType, action, attempt);
+                } finally {
+                    inFlight.remove(id, attempt);
+                }
+            }
+            // A duplicate arriving while the first attempt runs waits for its outcome instead of running again
+            try {
+                return replay(running.get(DUPLICATE_WAIT_SECONDS, TimeUnit.SECONDS), requestHash, responseType);
+            } catch (ExecutionException e) {
+                // The first attempt failed and stored nothing, so this duplicate gets to run the request itself
+            } catch (TimeoutException e) {
+                throw inProgress();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw inProgress();
+            }
+        }
+    }
+
+    @Scheduled(cron = "${idempotency.purge-cron}")
+    public void purgeExpired() {
+        int purged = recordRepository.deleteExpired(LocalDateTime.now());
+        log.info("Purged {} expired idempotency records", purged);
+    }
+
+    private <T> ResponseEntity<T> runFirst(String id, String requestHash, Class<T> responseType,
+            Supplier<ResponseEntity<T>> action, CompletableFuture<Stored> attempt) {
+        try {
+            String attemptId = UUID.randomUUID().toString();
+            LocalDateTime now = LocalDateTime.now();
+            Optional<IdempotencyRecord> existing = recordRepository.findById(id);
+            if (existing.isPresent() && existing.get().getExpiresAt().isAfter(now)) {
+                IdempotencyRecord record = existing.get();
+                if (record.getStatus() == null) {
+                    claimAbandoned(record, attemptId, requestHash, now);
+                } else {
+                    Stored stored = new Stored(record.getRequestHash(), record.getStatus(),
+                            fromJson(record.getResponseBody(), responseType));
+                    completed.put(id, stored);
+                    attempt.complete(stored);
+                    return replay(stored, requestHash, responseType);
+                }
+            } else {
+                existing.ifPresent(recordRepository::delete);
+                try {
+                    recordRepository.insertPending(id, requestHash, attemptId, now, now.plus(ttl));
+                } catch (DataIntegrityViolationException e) {
+                    throw inProgress();
+                }
+            }
+
+            ResponseEntity<T> response;
+            try {
+                response = transactionTemplate.execute(status -> {
+                    ResponseEntity<T> result = action.get();
+                    if (result.getStatusCode().is2xxSuccessful()
+                            && recordRepository.complete(id, attemptId, result.getStatusCode().value(),
+                                    toJson(result.getBody())) != 1) {
+                        // Another attempt took the key over, so this one must not commit its writes
+                        throw inProgress();
+                    }
+                    return result;
+                });
+            } catch (RuntimeException e) {
+                recordRepository.release(id, attemptId);
+                throw e;
+            }
+            if (!response.getStatusCode().is2xxSuccessful()) {
+                recordRepository.release(id, attemptId);
+                attempt.completeExceptionally(new IllegalStateException("Request was not successful"));
+                return response;
+            }
+
+            Stored stored = new Stored(requestHash, response.getStatusCode().value(), response.getBody());
+            completed.put(id, stored);
+            attempt.complete(stored);
+            return response;
+        } catch (RuntimeException e) {
+            attempt.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // A pending record only ever belongs to a request that has not committed. Once it is older than any request
+    // can run, its owner is gone and the key is handed to this attempt. Records without a token predate atomic
+    // completion and may have committed, so they stay blocked until they expire.
+    private void claimAbandoned(IdempotencyRecord record, String attemptId, String requestHash, LocalDateTime now) {
+        if (record.getAttempt() == null || record.getCreatedAt().isAfter(now.minus(pendingTimeout))
+                || recordRepository.takeOver(record.getId(), record.getAttempt(), attemptId, requestHash, now,
+                        now.plus(ttl)) != 1) {
+            throw inProgress();
+        }
+        log.warn("Took over idempotency record {} abandoned since {}", record.getId(), record.getCreatedAt());
+    }
+
+    private <T> ResponseEntity<T> replay(Stored stored, String requestHash, Class<T> responseType) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    HEADER + " was already used with a different request");
+        }
+        return ResponseEntity.status(stored.status())
+                .header(REPLAYED_HEADER, "true")
+                .body(responseType.cast(stored.body()));
+    }
+
+    private ResponseStatusException inProgress() {
+        return new ResponseStatusException(HttpStatus.CONFLICT,
+                "A request with this " + HEADER + " is still being processed");
+    }
+
+    private String toJson(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize idempotent response", e);
+        }
+    }
+
+    private <T> T fromJson(String json, Class<T> type) {
+        if (json == null || type == Void.class) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read stored idempotent response", e);
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(String.valueOf(value).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Stored(String requestHash, int status, Object body) {
+    }
+}
@@ -0,0 +1,53 @@
+package com.gym.management.service;
+
+import com.gym.management.repository.GymServiceRepository;
+import com.gym.management.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageMigrationService {
+
+    private final GymServiceRepository gymServiceRepository;
+    private final UserRepository userRepository;
+    private final ImageService imageService;
+
+    // Moves legacy base64 columns into the blob store one row at a time so only one image is in memory
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateInlineImages() {
+        int services = 0;
+        for (Integer id : gymServiceRepository.findIdsWithInlineImage()) {
+            try {
+                gymServiceRepository.findById(id).ifPresent(service -> {
+                    service.setImage(imageService.storeIfInline(service.getImage()));
+                    gymServiceRepository.save(service);
+                });
+                services++;
+            } catch (RuntimeException e) {
+                log.warn("Could not migrate image of service {}: {}", id, e.getMessage());
+            }
+        }
+
+        int users = 0;
+        for (Integer id : userRepository.findIdsWithInlineAvatar()) {
+            try {
+                userRepository.findById(id).ifPresent(user -> {
+                    user.setAvatar(imageService.storeIfInline(user.getAvatar()));
+                    userRepository.save(user);
+                });
+                users++;
+            } catch (RuntimeException e) {
+                log.warn("Could not migrate avatar of user {}: {}", id, e.getMessage());
+            }
+        }
+
+        if (services > 0 || users > 0) {
+            log.info("Moved {} service images and {} avatars to the image store", services, users);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.gym.management.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+@Service
+public class ImageService {
+
+    public static final String URL_PREFIX = "/api/v1/images/";
+
+    private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+    private static final MediaType IMAGE_WEBP = MediaType.parseMediaType("image/webp");
+
+    @Value("${image.storage.dir}")
+    private String storageDir;
+
+    @Value("${image.base-url}")
+    private String baseUrl;
+
+    // Frontend uploads arrive as data URLs; anything else (stored path, external avatar URL) is kept as-is.
+    // Throws IllegalArgumentException when the data URL or the image in it is not acceptable.
+    public String storeIfInline(String value) {
+        if (value == null || !value.startsWith("data:")) {
+            return value;
+        }
+        int comma = value.indexOf(',');
+        if (comma < 0 || !value.substring(0, comma).endsWith(";base64")) {
+            throw new IllegalArgumentException("Unsupported image encoding");
+        }
+        byte[] bytes;
+        try {
+            bytes = Base64.getMimeDecoder().decode(value.substring(comma + 1));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed image data");
+        }
+        return URL_PREFIX + store(bytes);
+    }
+
+    public String store(byte[] bytes) {
+        if (detectContentType(bytes) == null) {
+            throw new IllegalArgumentException("Only PNG, JPEG, GIF and WEBP images are supported");
+        }
+        String hash = sha256(bytes);
+        Path target = resolve(hash);
+        if (Files.exists(target)) {
+            return hash;
+        }
+        try {
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), hash, ".tmp");
+            Files.write(temp, bytes);
+            // Same hash means same bytes, so losing a race to another writer is harmless
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store image", e);
+        }
+        return hash;
+    }
+
+    public boolean isValidHash(String hash) {
+        return hash != null && HASH_PATTERN.matcher(hash).matches();
+    }
+
+    public Path resolve(String hash) {
+        if (!isValidHash(hash)) {
+            throw new IllegalArgumentException("Invalid image id");
+        }
+        return Paths.get(storageDir).resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    public String toPublicUrl(String value) {
+        return value != null && value.startsWith(URL_PREFIX) ? baseUrl + value : value;
+    }
+
+    public MediaType getContentType(Path file) throws IOException {
+        byte[] header = new byte[12];
+        int read;
+        try (InputStream in = Files.newInputStream(file)) {
+            read = in.readNBytes(header, 0, header.length);
+        }
+        MediaType type = read == header.length ? detectContentType(header) : null;
+        return type != null ? type : MediaType.APPLICATION_OCTET_STREAM;
+    }
+
+    private MediaType detectContentType(byte[] b) {
+        if (b.length >= 8 && (b[0] & 0xFF) == 0x89 && b[1] == 'P' && b[2] == 'N' && b[3] == 'G') {
+            return MediaType.IMAGE_PNG;
+        }
+        if (b.length >= 3 && (b[0] & 0xFF) == 0xFF && (b[1] & 0xFF) == 0xD8 && (b[2] & 0xFF) == 0xFF) {
+            return MediaType.IMAGE_JPEG;
+        }
+        if (b.length >= 6 && b[0] == 'G' && b[1] == 'I' && b[2] == 'F' && b[3] == '8') {
+            return MediaType.IMAGE_GIF;
+        }
+        if (b.length >= 12 && b[0] == 'R' && b[1] == 'I' && b[2] == 'F' && b[3] == 'F'
+                && b[8] == 'W' && b[9] == 'E' && b[10] == 'B' && b[11] == 'P') {
+            return IMAGE_WEBP;
+        }
+        return null;
+    }
+
+    private String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.gym.management.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+// Treap of half-open [start, end) intervals ordered by (start, value), each node augmented with the
+// largest end in its subtree so overlap queries skip every subtree that finishes before the window.
+// Not thread-safe; callers guard each tree with their own lock.
+final class IntervalTree<T extends Comparable<T>> {
+
+    private Node<T> root;
+    private int size;
+
+    void insert(long start, long end, T value) {
+        root = insert(root, new Node<>(start, end, value));
+        size++;
+    }
+
+    boolean remove(long start, T value) {
+        int before = size;
+        root = remove(root, start, value);
+        return size < before;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // First interval overlapping [from, to) that matches, in start order; O(log n) plus the skipped matches
+    T findFirst(long from, long to, Predicate<T> match) {
+        return findFirst(root, from, to, match);
+    }
+
+    void forEachOverlapping(long from, long to, Consumer<T> action) {
+        forEachOverlapping(root, from, to, action);
+    }
+
+    private Node<T> insert(Node<T> node, Node<T> added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added.start, added.value, node) < 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        return update(node);
+    }
+
+    private Node<T> remove(Node<T> node, long start, T value) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(start, value, node);
+        if (cmp < 0) {
+            node.left = remove(node.left, start, value);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, start, value);
+        } else {
+            size--;
+            return merge(node.left, node.right);
+        }
+        return update(node);
+    }
+
+    private Node<T> merge(Node<T> left, Node<T> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return update(left);
+        }
+        right.left = merge(left, right.left);
+        return update(right);
+    }
+
+    private T findFirst(Node<T> node, long from, long to, Predicate<T> match) {
+        if (node == null || node.maxEnd <= from) {
+            return null;
+        }
+        T found = findFirst(node.left, from, to, match);
+        if (found != null) {
+            return found;
+        }
+        if (node.start >= to) {
+            return null;
+        }
+        if (node.end > from && match.test(node.value)) {
+            return node.value;
+        }
+        return findFirst(node.right, from, to, match);
+    }
+
+    private void forEachOverlapping(Node<T> node, long from, long to, Consumer<T> action) {
+        if (node == null || node.maxEnd <= from) {
+            return;
+        }
+        forEachOverlapping(node.left, from, to, action);
+        if (node.start >= to) {
+            return;
+        }
+        if (node.end > from) {
+            action.accept(node.value);
+        }
+        forEachOverlapping(node.right, from, to, action);
+    }
+
+    private int compare(long start, T value, Node<T> node) {
+        int cmp = Long.compare(start, node.start);
+        return cmp != 0 ? cmp : value.compareTo(node.value);
+    }
+
+    private Node<T> rotateRight(Node<T> node) {
+        Node<T> pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = update(node);
+        return update(pivot);
+    }
+
+    private Node<T> rotateLeft(Node<T> node) {
+        Node<T> pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = update(node);
+        return update(pivot);
+    }
+
+    private Node<T> update(Node<T> node) {
+        long maxEnd = node.end;
+        if (node.left != null) {
+            maxEnd = Math.max(maxEnd, node.left.maxEnd);
+        }
+        if (node.right != null) {
+            maxEnd = Math.max(maxEnd, node.right.maxEnd);
+        }
+        node.maxEnd = maxEnd;
+        return node;
+    }
+
+    private static final class Node<T> {
+        final long start;
+        final long end;
+        final T value;
+        final int priority = ThreadLocalRandom.current().nextInt();
+        long maxEnd;
+        Node<T> left;
+        Node<T> right;
+
+        Node(long start, long end, T value) {
+            this.start = start;
+            this.end = end;
+            this.value = value;
+            this.maxEnd = end;
+        }
+    }
+}
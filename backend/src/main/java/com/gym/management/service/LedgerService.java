@@ -0,0 +1,170 @@
+package com.gym.management.service;
+
+import com.gym.management.model.LedgerAccount;
+import com.gym.management.model.LedgerEntry;
+import com.gym.management.model.TransactionType;
+import com.gym.management.repository.JobCheckpointRepository;
+import com.gym.management.repository.LedgerEntryRepository;
+import com.gym.management.repository.WalletRepository;
+import com.gym.management.repository.WalletSnapshotRepository;
+import com.gym.management.repository.projection.WalletBalance;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+// Double-entry journal of every wallet movement in minor units. Balances are derived from a per-wallet
+// snapshot plus the entries not yet folded into it; a scheduled job folds those tails into the snapshots and
+// marks the entries folded. Wallet.balance remains the balance that debits are checked against; the ledger
+// balance is the record it must agree with.
+@Slf4j
+@Service
+public class LedgerService {
+
+    // Position of the fold before entries carried a folded mark; replaced by the mark on the first run
+    private static final String LEGACY_SNAPSHOT_JOB = "ledger-snapshot";
+
+    private final LedgerEntryRepository entryRepository;
+    private final WalletSnapshotRepository snapshotRepository;
+    private final JobCheckpointRepository checkpointRepository;
+    private final WalletRepository walletRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int snapshotBatchSize;
+
+    public LedgerService(LedgerEntryRepository entryRepository, WalletSnapshotRepository snapshotRepository,
+            JobCheckpointRepository checkpointRepository, WalletRepository walletRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${ledger.snapshot-batch-size}") int snapshotBatchSize) {
+        this.entryRepository = entryRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.walletRepository = walletRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.snapshotBatchSize = snapshotBatchSize;
+    }
+
+    public record Posting(LedgerAccount account, Integer walletId, long amountMinor, TransactionType type) {
+
+        public static Posting wallet(Integer walletId, long amountMinor, TransactionType type) {
+            return new Posting(LedgerAccount.WALLET, walletId, amountMinor, type);
+        }
+
+        public static Posting system(LedgerAccount account, long amountMinor, TransactionType type) {
+            return new Posting(account, null, amountMinor, type);
+        }
+    }
+
+    public static long toMinor(Double amount) {
+        return BigDecimal.valueOf(amount).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    public static double fromMinor(long amountMinor) {
+        return BigDecimal.valueOf(amountMinor, 2).doubleValue();
+    }
+
+    // Appends one balanced journal in the caller's transaction: plain inserts, no rows are read or locked
+    @Transactional(propagation = Propagation.MANDATORY)
+    public String post(List<Posting> postings) {
+        long sum = postings.stream().mapToLong(Posting::amountMinor).sum();
+        if (sum != 0) {
+            throw new IllegalStateException("Unbalanced journal: legs sum to " + sum);
+        }
+        String journalId = UUID.randomUUID().toString();
+        entryRepository.saveAll(postings.stream()
+                .filter(p -> p.amountMinor() != 0)
+                .map(p -> LedgerEntry.builder()
+                        .journalId(journalId)
+                        .account(p.account())
+                        .walletId(p.walletId())
+                        .amountMinor(p.amountMinor())
+                        .type(p.type())
+                        .build())
+                .toList());
+        return journalId;
+    }
+
+    // Snapshot plus a tail bounded by the snapshot interval, independent of the wallet's history length
+    public long balanceMinor(Integer walletId) {
+        return entryRepository.balanceMinor(walletId);
+    }
+
+    @Scheduled(fixedDelayString = "${ledger.snapshot-interval-ms}")
+    public void snapshot() {
+        int folded;
+        do {
+            folded = foldBatch();
+        } while (folded == snapshotBatchSize);
+    }
+
+    // Folds entries by their own mark rather than by id or age, so one whose transaction commits late, behind
+    // entries already folded, is simply picked up by the next run
+    private int foldBatch() {
+        try {
+            Integer folded = transactionTemplate.execute(status -> {
+                migrateLegacyCheckpoint();
+                List<LedgerEntry> batch = entryRepository.findByFoldedFalseOrderByIdAsc(
+                        PageRequest.of(0, snapshotBatchSize));
+                if (batch.isEmpty()) {
+                    return 0;
+                }
+                // Marking first makes a concurrent run on another instance wait here and then find nothing left
+                if (entryRepository.markFolded(batch.stream().map(LedgerEntry::getId).toList()) != batch.size()) {
+                    throw new IllegalStateException("Ledger entries were folded concurrently");
+                }
+                Map<Integer, Long> sums = batch.stream()
+                        .filter(e -> e.getWalletId() != null)
+                        .collect(Collectors.groupingBy(LedgerEntry::getWalletId, TreeMap::new,
+                                Collectors.summingLong(LedgerEntry::getAmountMinor)));
+                sums.forEach(snapshotRepository::fold);
+                return batch.size();
+            });
+            log.debug("Folded {} ledger entries into wallet snapshots", folded);
+            return folded == null ? 0 : folded;
+        } catch (RuntimeException e) {
+            log.warn("Ledger snapshot run failed, retrying on the next run", e);
+            return 0;
+        }
+    }
+
+    // Snapshots taken up to the legacy position already hold every entry at or below it
+    private void migrateLegacyCheckpoint() {
+        checkpointRepository.findById(LEGACY_SNAPSHOT_JOB).ifPresent(checkpoint -> {
+            int marked = entryRepository.markFoldedUpTo(checkpoint.getPosition());
+            checkpointRepository.delete(checkpoint);
+            log.info("Marked {} ledger entries up to {} as folded", marked, checkpoint.getPosition());
+        });
+    }
+
+    // Wallets that existed before the ledger start from an opening-balance journal
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void openBalancesIfEmpty() {
+        if (entryRepository.count() > 0) {
+            return;
+        }
+        List<WalletBalance> balances = walletRepository.findNonZeroBalances();
+        for (WalletBalance balance : balances) {
+            long amountMinor = toMinor(balance.balance());
+            post(List.of(
+                    Posting.wallet(balance.walletId(), amountMinor, null),
+                    Posting.system(LedgerAccount.OPENING_BALANCE, -amountMinor, null)));
+        }
+        if (!balances.isEmpty()) {
+            log.info("Opened ledger balances for {} wallets", balances.size());
+        }
+    }
+}
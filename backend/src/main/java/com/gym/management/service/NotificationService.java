@@ -5,7 +5,9 @@ import com.gym.management.model.Role;
 import com.gym.management.model.User;
 import com.gym.management.repository.NotificationRepository;
 import com.gym.management.repository.UserRepository;
+import com.gym.management.repository.projection.NotificationSummary;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -19,13 +21,7 @@ public class NotificationService {
     private final UserRepository userRepository;
 
     public void createNotification(User recipient, String message) {
-        Notification notification = Notification.builder()
-                .recipient(recipient)
-                .message(message)
-                .isRead(false)
-                .createdAt(LocalDateTime.now())
-                .build();
-        notificationRepository.save(notification);
+        notificationRepository.save(newNotification(recipient, message));
     }
 
     public void notifyAdmins(String message) {
@@ -33,13 +29,16 @@ public class NotificationService {
                 .filter(u -> u.getRole() == Role.ADMIN || u.getRole() == Role.SUPER_ADMIN)
                 .toList();
 
-        for (User admin : admins) {
-            createNotification(admin, message);
-        }
+        createNotifications(admins, message);
     }
 
-    public List<Notification> getMyNotifications(User user) {
-        return notificationRepository.findByRecipientIdOrderByCreatedAtDesc(user.getId());
+    public List<NotificationSummary> getMyNotifications(User user, LocalDateTime beforeCreatedAt, Integer beforeId,
+            int limit) {
+        if (beforeCreatedAt == null) {
+            return notificationRepository.findSummaries(user.getId(), PageRequest.of(0, limit));
+        }
+        return notificationRepository.findSummariesBefore(user.getId(), beforeCreatedAt, beforeId,
+                PageRequest.of(0, limit));
     }
 
     public void markAsRead(Integer id) {
@@ -62,9 +61,22 @@ public class NotificationService {
             return;
         }
 
-        String fullMessage = title + ": " + message;
-        for (User recipient : recipients) {
-            createNotification(recipient, fullMessage);
-        }
+        createNotifications(recipients, title + ": " + message);
+    }
+
+    // saveAll runs in one transaction, so the inserts go out as JDBC batches
+    private void createNotifications(List<User> recipients, String message) {
+        notificationRepository.saveAll(recipients.stream()
+                .map(recipient -> newNotification(recipient, message))
+                .toList());
+    }
+
+    private static Notification newNotification(User recipient, String message) {
+        return Notification.builder()
+                .recipient(recipient)
+                .message(message)
+                .isRead(false)
+                .createdAt(LocalDateTime.now())
+                .build();
     }
 }
@@ -0,0 +1,154 @@
+package com.gym.management.service;
+
+import com.gym.management.model.Booking;
+import com.gym.management.model.OutboxEvent;
+import com.gym.management.model.OutboxEventType;
+import com.gym.management.repository.BookingRepository;
+import com.gym.management.repository.OutboxEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Drains the outbox in batches. Handlers and the processed mark commit together, so an event whose
+// batch fails is redelivered as a whole and never leaves half of its side effects behind.
+@Slf4j
+@Service
+public class OutboxDispatcher {
+
+    private final OutboxEventRepository outboxRepository;
+    private final BookingRepository bookingRepository;
+    private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final int retentionDays;
+
+    public OutboxDispatcher(OutboxEventRepository outboxRepository, BookingRepository bookingRepository,
+            NotificationService notificationService, TransactionTemplate transactionTemplate,
+            @Value("${outbox.batch-size}") int batchSize,
+            @Value("${outbox.max-attempts}") int maxAttempts,
+            @Value("${outbox.retention-days}") int retentionDays) {
+        this.outboxRepository = outboxRepository;
+        this.bookingRepository = bookingRepository;
+        this.notificationService = notificationService;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retentionDays = retentionDays;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.poll-interval-ms}")
+    public void dispatch() {
+        int drained;
+        do {
+            drained = drainBatch();
+        } while (drained == batchSize);
+    }
+
+    @Scheduled(cron = "${outbox.purge-cron}")
+    public void purgeProcessed() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        Integer purged = transactionTemplate.execute(status -> outboxRepository.deleteProcessedBefore(cutoff));
+        log.info("Purged {} processed outbox events", purged);
+    }
+
+    private int drainBatch() {
+        try {
+            Integer drained = transactionTemplate.execute(status -> {
+                List<OutboxEvent> batch = outboxRepository.findByProcessedAtIsNullAndAttemptsLessThanOrderByIdAsc(
+                        maxAttempts, PageRequest.of(0, batchSize));
+                handle(batch);
+                markProcessed(batch);
+                return batch.size();
+            });
+            return drained == null ? 0 : drained;
+        } catch (RuntimeException e) {
+            log.warn("Outbox batch failed, retrying its events one at a time", e);
+            drainOneByOne();
+            return 0;
+        }
+    }
+
+    // Isolates the failing event so the rest of the batch still goes through
+    private void drainOneByOne() {
+        List<Long> ids = outboxRepository.findByProcessedAtIsNullAndAttemptsLessThanOrderByIdAsc(maxAttempts,
+                PageRequest.of(0, batchSize)).stream().map(OutboxEvent::getId).toList();
+        for (Long id : ids) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> outboxRepository.findByIdAndProcessedAtIsNull(id)
+                        .ifPresent(event -> {
+                            handle(List.of(event));
+                            markProcessed(List.of(event));
+                        }));
+            } catch (RuntimeException e) {
+                recordFailure(id, e);
+            }
+        }
+    }
+
+    private void recordFailure(Long id, RuntimeException failure) {
+        transactionTemplate.executeWithoutResult(status -> outboxRepository.findById(id).ifPresent(event -> {
+            event.setAttempts(event.getAttempts() + 1);
+            String message = String.valueOf(failure.getMessage());
+            event.setLastError(message.length() > 1024 ? message.substring(0, 1024) : message);
+            if (event.getAttempts() >= maxAttempts) {
+                log.error("Outbox event {} gave up after {} attempts", event.getEventKey(), event.getAttempts());
+            }
+        }));
+    }
+
+    private void markProcessed(List<OutboxEvent> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        batch.forEach(event -> event.setProcessedAt(now));
+    }
+
+    private void handle(List<OutboxEvent> batch) {
+        Map<OutboxEventType, List<Integer>> byType = batch.stream().collect(Collectors.groupingBy(
+                OutboxEvent::getType, Collectors.mapping(OutboxEvent::getAggregateId, Collectors.toList())));
+        byType.forEach((type, aggregateIds) -> {
+            switch (type) {
+                case BOOKING_CONFIRMED -> bookingsConfirmed(aggregateIds);
+                case BOOKING_SERIES_CONFIRMED -> bookingSeriesConfirmed(aggregateIds);
+            }
+        });
+    }
+
+    private void bookingsConfirmed(List<Integer> bookingIds) {
+        for (Booking booking : bookingRepository.findByIdIn(bookingIds)) {
+            var service = booking.getService();
+            var user = booking.getUser();
+            notificationService.createNotification(service.getTrainer(),
+                    "New booking for '" + service.getName() + "' by athlete " + user.getFirstname()
+                            + ". You earned ₹" + (booking.getTotalAmount() * 0.85));
+            notificationService.createNotification(user,
+                    "Training session confirmed for " + service.getName() + "! Get ready to grind.");
+        }
+    }
+
+    // One summary per series instead of a pair of notifications for every session
+    private void bookingSeriesConfirmed(List<Integer> firstBookingIds) {
+        for (Booking first : bookingRepository.findByIdIn(firstBookingIds)) {
+            List<Booking> series = bookingRepository.findBySeriesIdOrderByBookingDateAsc(first.getSeriesId());
+            var service = first.getService();
+            var user = first.getUser();
+            double total = series.stream().mapToDouble(Booking::getTotalAmount).sum();
+            LocalDateTime from = series.get(0).getBookingDate();
+            LocalDateTime to = series.get(series.size() - 1).getBookingDate();
+            notificationService.createNotification(service.getTrainer(),
+                    series.size() + " new bookings for '" + service.getName() + "' by athlete " + user.getFirstname()
+                            + " between " + from.toLocalDate() + " and " + to.toLocalDate() + ". You earned ₹"
+                            + (total * 0.85));
+            notificationService.createNotification(user,
+                    series.size() + " training sessions confirmed for " + service.getName() + " from "
+                            + from.toLocalDate() + " to " + to.toLocalDate() + "! Get ready to grind.");
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.gym.management.service;
+
+import com.gym.management.model.OutboxEvent;
+import com.gym.management.model.OutboxEventType;
+import com.gym.management.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxEventRepository outboxRepository;
+
+    // Must join the caller's transaction: the event commits or rolls back together with the change it describes
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(OutboxEventType type, Integer aggregateId) {
+        outboxRepository.save(OutboxEvent.builder()
+                .type(type)
+                .aggregateId(aggregateId)
+                .eventKey(type.name() + ":" + aggregateId)
+                .build());
+    }
+}
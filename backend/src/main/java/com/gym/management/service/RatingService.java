@@ -0,0 +1,103 @@
+package com.gym.management.service;
+
+import com.gym.management.model.Review;
+import com.gym.management.model.ServiceRating;
+import com.gym.management.repository.JobCheckpointRepository;
+import com.gym.management.repository.ReviewRepository;
+import com.gym.management.repository.ServiceRatingRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class RatingService {
+
+    private static final String REBUILD_LOCK = "service-rating-rebuild";
+
+    private final ReviewRepository reviewRepository;
+    private final ServiceRatingRepository serviceRatingRepository;
+    private final TrainerAnalyticsService trainerAnalytics;
+    private final JobCheckpointRepository checkpointRepository;
+
+    @Transactional
+    public Review saveReview(Review review) {
+        checkpointRepository.lockShared(REBUILD_LOCK);
+        Review saved = reviewRepository.save(review);
+        serviceRatingRepository.addRating(saved.getService().getId(), saved.getRating());
+        if (saved.getService().getTrainer() != null) {
+            trainerAnalytics.recordRating(saved.getService().getTrainer().getId(), saved.getRating());
+        }
+        return saved;
+    }
+
+    public ServiceRating getRating(Integer serviceId) {
+        return serviceRatingRepository.findById(serviceId).orElseGet(() -> emptyRating(serviceId));
+    }
+
+    public Map<Integer, ServiceRating> getRatings(Collection<Integer> serviceIds) {
+        return serviceRatingRepository.findAllById(serviceIds).stream()
+                .collect(Collectors.toMap(ServiceRating::getServiceId, Function.identity()));
+    }
+
+    // Reviews saved meanwhile wait for the rebuild to commit, and it waits for those already saved
+    @Transactional
+    public void rebuild() {
+        checkpointRepository.lockExclusive(REBUILD_LOCK);
+        Map<Integer, ServiceRating> ratings = new HashMap<>();
+        for (Object[] row : reviewRepository.countByServiceAndRating()) {
+            Integer serviceId = (Integer) row[0];
+            Integer rating = (Integer) row[1];
+            int count = ((Long) row[2]).intValue();
+            if (rating == null || rating < 1 || rating > 5) {
+                continue;
+            }
+
+            ServiceRating aggregate = ratings.computeIfAbsent(serviceId, this::emptyRating);
+            aggregate.setRatingSum(aggregate.getRatingSum() + (long) rating * count);
+            aggregate.setReviewCount(aggregate.getReviewCount() + count);
+            switch (rating) {
+                case 1 -> aggregate.setOneStar(aggregate.getOneStar() + count);
+                case 2 -> aggregate.setTwoStar(aggregate.getTwoStar() + count);
+                case 3 -> aggregate.setThreeStar(aggregate.getThreeStar() + count);
+                case 4 -> aggregate.setFourStar(aggregate.getFourStar() + count);
+                default -> aggregate.setFiveStar(aggregate.getFiveStar() + count);
+            }
+        }
+
+        serviceRatingRepository.deleteAllInBatch();
+        serviceRatingRepository.saveAll(ratings.values());
+    }
+
+    // Existing reviews predate the aggregate table, so seed it once on first start. The lock row is created here
+    // rather than by the first rebuild, which would otherwise have nothing to lock against the reviews saved meanwhile
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuildIfEmpty() {
+        checkpointRepository.createIfAbsent(REBUILD_LOCK);
+        if (serviceRatingRepository.count() == 0 && reviewRepository.count() > 0) {
+            rebuild();
+        }
+    }
+
+    private ServiceRating emptyRating(Integer serviceId) {
+        return ServiceRating.builder()
+                .serviceId(serviceId)
+                .ratingSum(0L)
+                .reviewCount(0)
+                .oneStar(0)
+                .twoStar(0)
+                .threeStar(0)
+                .fourStar(0)
+                .fiveStar(0)
+                .build();
+    }
+}
@@ -0,0 +1,255 @@
+package com.gym.management.service;
+
+import com.gym.management.model.ReconciliationRun;
+import com.gym.management.model.ReconciliationStatus;
+import com.gym.management.model.TransactionStatus;
+import com.gym.management.model.TransactionType;
+import com.gym.management.model.WalletDiscrepancy;
+import com.gym.management.repository.ReconciliationRunRepository;
+import com.gym.management.repository.TransactionRepository;
+import com.gym.management.repository.WalletDiscrepancyRepository;
+import com.gym.management.repository.WalletRepository;
+import com.gym.management.repository.projection.TransactionAmount;
+import com.gym.management.repository.projection.WalletBalance;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+// Compares every wallet balance with the sum of its successful transactions. Wallet ids are split into chunks
+// that a fork/join pool sums in parallel; each chunk streams its rows into a long[] of minor units indexed by
+// wallet, so memory follows the chunk size rather than the transaction count. Chunks run in waves and the
+// run's position advances after each wave, so a run stopped part-way resumes where it left off.
+@Slf4j
+@Service
+public class ReconciliationService {
+
+    private static final Set<TransactionType> DEBITS = EnumSet.of(
+            TransactionType.BOOKING, TransactionType.WITHDRAWAL, TransactionType.PAYMENT);
+    private static final int CHUNKS_PER_WORKER_PER_WAVE = 4;
+
+    private final TransactionRepository transactionRepository;
+    private final WalletRepository walletRepository;
+    private final ReconciliationRunRepository runRepository;
+    private final WalletDiscrepancyRepository discrepancyRepository;
+    private final TreasuryService treasuryService;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate chunkTemplate;
+    private final int chunkSize;
+    private final int parallelism;
+    private final ForkJoinPool pool;
+    private final ExecutorService coordinator;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean closing;
+
+    public ReconciliationService(TransactionRepository transactionRepository, WalletRepository walletRepository,
+            ReconciliationRunRepository runRepository, WalletDiscrepancyRepository discrepancyRepository,
+            TreasuryService treasuryService, PlatformTransactionManager transactionManager,
+            @Value("${reconciliation.chunk-size}") int chunkSize,
+            @Value("${reconciliation.parallelism}") int parallelism) {
+        this.transactionRepository = transactionRepository;
+        this.walletRepository = walletRepository;
+        this.runRepository = runRepository;
+        this.discrepancyRepository = discrepancyRepository;
+        this.treasuryService = treasuryService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // A chunk reads balances and transactions from one snapshot, so bookings committing meanwhile
+        // show up on both sides or on neither
+        this.chunkTemplate = new TransactionTemplate(transactionManager);
+        this.chunkTemplate.setReadOnly(true);
+        this.chunkTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.chunkSize = Math.max(1, chunkSize);
+        // Each worker holds a pooled connection while it streams, so keep this below the pool size
+        this.parallelism = Math.max(1, parallelism);
+        this.pool = new ForkJoinPool(this.parallelism);
+        this.coordinator = Executors.newSingleThreadExecutor(r -> new Thread(r, "reconciliation"));
+    }
+
+    // False when a run is already in progress
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        coordinator.execute(() -> {
+            try {
+                reconcile();
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    @Scheduled(cron = "${reconciliation.cron}")
+    public void scheduledRun() {
+        if (!start()) {
+            log.info("Skipping scheduled reconciliation: a run is already in progress");
+        }
+    }
+
+    // A run cut off by a restart carries on from its last completed wave
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        runRepository.findFirstByStatusNotOrderByIdDesc(ReconciliationStatus.COMPLETED)
+                .filter(run -> run.getStatus() == ReconciliationStatus.RUNNING)
+                .ifPresent(run -> start());
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        closing = true;
+        coordinator.shutdownNow();
+        pool.shutdownNow();
+        coordinator.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void reconcile() {
+        // Wallets opened after a run starts are left to the next run
+        ReconciliationRun run = runRepository.findFirstByStatusNotOrderByIdDesc(ReconciliationStatus.COMPLETED)
+                .orElseGet(() -> ReconciliationRun.builder()
+                        .position(0)
+                        .upToWalletId(walletRepository.findMaxId())
+                        .startedAt(LocalDateTime.now())
+                        .build());
+        run.setStatus(ReconciliationStatus.RUNNING);
+        run.setLastError(null);
+        run.setUpdatedAt(LocalDateTime.now());
+        run = runRepository.save(run);
+        log.info("Reconciling wallets {}..{} in run {}", run.getPosition() + 1, run.getUpToWalletId(), run.getId());
+        long waveSize = (long) chunkSize * parallelism * CHUNKS_PER_WORKER_PER_WAVE;
+        try {
+            while (run.getPosition() < run.getUpToWalletId()) {
+                int from = run.getPosition() + 1;
+                int to = (int) Math.min(run.getUpToWalletId(), run.getPosition() + waveSize);
+                ChunkResult result = pool.invoke(new RangeTask(from, to));
+                run = saveProgress(run, to, result);
+            }
+            run.setStatus(ReconciliationStatus.COMPLETED);
+            run.setFinishedAt(LocalDateTime.now());
+            run.setUpdatedAt(run.getFinishedAt());
+            run = runRepository.save(run);
+            log.info("Reconciliation run {} checked {} wallets and {} transactions, {} discrepancies", run.getId(),
+                    run.getWalletsChecked(), run.getTransactionsSummed(), run.getDiscrepancies());
+        } catch (RuntimeException e) {
+            if (closing) {
+                log.info("Reconciliation run {} stopped at wallet {}; it resumes on next start", run.getId(),
+                        run.getPosition());
+                return;
+            }
+            log.error("Reconciliation run {} failed after wallet {}", run.getId(), run.getPosition(), e);
+            run.setStatus(ReconciliationStatus.FAILED);
+            String message = String.valueOf(e.getMessage());
+            run.setLastError(message.length() > 1024 ? message.substring(0, 1024) : message);
+            run.setUpdatedAt(LocalDateTime.now());
+            runRepository.save(run);
+        }
+    }
+
+    // Discrepancies and the new position commit together, so a resumed run never reports a wallet twice
+    private ReconciliationRun saveProgress(ReconciliationRun run, int position, ChunkResult result) {
+        return transactionTemplate.execute(status -> {
+            Long runId = run.getId();
+            result.discrepancies().forEach(d -> d.setRunId(runId));
+            discrepancyRepository.saveAll(result.discrepancies());
+            run.setPosition(position);
+            run.setWalletsChecked(run.getWalletsChecked() + result.wallets());
+            run.setTransactionsSummed(run.getTransactionsSummed() + result.transactions());
+            run.setDiscrepancies(run.getDiscrepancies() + result.discrepancies().size());
+            run.setUpdatedAt(LocalDateTime.now());
+            return runRepository.save(run);
+        });
+    }
+
+    private ChunkResult sumChunk(int from, int to) {
+        return chunkTemplate.execute(status -> {
+            long[] totals = new long[to - from + 1];
+            long transactions = 0;
+            try (Stream<TransactionAmount> rows = transactionRepository.streamAmountsByWalletRange(from, to,
+                    TransactionStatus.SUCCESS)) {
+                for (TransactionAmount row : (Iterable<TransactionAmount>) rows::iterator) {
+                    if (row.amount() == null) {
+                        continue;
+                    }
+                    long amountMinor = LedgerService.toMinor(row.amount());
+                    totals[row.walletId() - from] += DEBITS.contains(row.type()) ? -amountMinor : amountMinor;
+                    transactions++;
+                }
+            }
+            // Commission waiting in treasury sub-accounts already has its transaction row
+            Integer treasuryWalletId = treasuryService.getTreasuryWalletId();
+            List<WalletBalance> balances = walletRepository.findBalancesBetween(from, to);
+            List<WalletDiscrepancy> discrepancies = new ArrayList<>();
+            for (WalletBalance balance : balances) {
+                long balanceMinor = LedgerService.toMinor(balance.balance() == null ? 0.0 : balance.balance());
+                if (balance.walletId().equals(treasuryWalletId)) {
+                    balanceMinor += LedgerService.toMinor(treasuryService.pendingCommission(treasuryWalletId));
+                }
+                long totalMinor = totals[balance.walletId() - from];
+                if (balanceMinor != totalMinor) {
+                    discrepancies.add(WalletDiscrepancy.builder()
+                            .walletId(balance.walletId())
+                            .walletBalance(LedgerService.fromMinor(balanceMinor))
+                            .transactionTotal(LedgerService.fromMinor(totalMinor))
+                            .difference(LedgerService.fromMinor(balanceMinor - totalMinor))
+                            .build());
+                }
+            }
+            return new ChunkResult(balances.size(), transactions, discrepancies);
+        });
+    }
+
+    private final class RangeTask extends RecursiveTask<ChunkResult> {
+
+        private final int from;
+        private final int to;
+
+        private RangeTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected ChunkResult compute() {
+            if (to - from < chunkSize) {
+                return sumChunk(from, to);
+            }
+            int middle = from + (to - from) / 2;
+            RangeTask left = new RangeTask(from, middle);
+            left.fork();
+            ChunkResult right = new RangeTask(middle + 1, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    private record ChunkResult(long wallets, long transactions, List<WalletDiscrepancy> discrepancies) {
+
+        ChunkResult merge(ChunkResult other) {
+            List<WalletDiscrepancy> merged = new ArrayList<>(discrepancies);
+            merged.addAll(other.discrepancies());
+            return new ChunkResult(wallets + other.wallets(), transactions + other.transactions(), merged);
+        }
+    }
+}
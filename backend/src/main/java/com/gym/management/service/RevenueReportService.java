@@ -0,0 +1,285 @@
+package com.gym.management.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.Paragraph;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Revenue PDF reports, rendered to files cached on disk. A file is named after a hash of the figures it shows, so a
+// download reads the rollup figures (a few small queries) and reuses the file until one of them changes. Long date
+// ranges are rendered by background jobs that admins poll and then download.
+@Slf4j
+@Service
+public class RevenueReportService {
+
+    // Bump when the layout changes so files rendered by the old layout are not served
+    private static final String LAYOUT_VERSION = "1";
+
+    private final RevenueService revenueService;
+    private final Path directory;
+    private final Duration retention;
+    private final long syncMaxMonths;
+    private final ExecutorService workers;
+    private final Cache<String, ReportJob> jobs;
+
+    // from and to are both null for the dashboard report: all-time totals and the last six months
+    public record Report(String key, LocalDate from, LocalDate to, Map<String, Object> figures) {
+    }
+
+    public record ReportJob(String id, LocalDate from, LocalDate to, Status status, String key, String error,
+            LocalDateTime createdAt, LocalDateTime finishedAt) {
+
+        public enum Status {
+            PENDING, RUNNING, COMPLETED, FAILED
+        }
+
+        private ReportJob with(Status status, String key, String error) {
+            return new ReportJob(id, from, to, status, key, error, createdAt,
+                    status == Status.COMPLETED || status == Status.FAILED ? LocalDateTime.now() : null);
+        }
+    }
+
+    public RevenueReportService(RevenueService revenueService,
+            @Value("${revenue.reports.dir}") String directory,
+            @Value("${revenue.reports.retention-hours}") long retentionHours,
+            @Value("${revenue.reports.sync-max-months}") long syncMaxMonths,
+            @Value("${revenue.reports.workers}") int workers) {
+        this.revenueService = revenueService;
+        this.directory = Paths.get(directory);
+        this.retention = Duration.ofHours(retentionHours);
+        this.syncMaxMonths = syncMaxMonths;
+        AtomicInteger threads = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(1, workers),
+                r -> new Thread(r, "revenue-report-" + threads.incrementAndGet()));
+        this.jobs = Caffeine.newBuilder()
+                .expireAfterWrite(this.retention)
+                .build();
+    }
+
+    @PreDestroy
+    public void close() {
+        workers.shutdownNow();
+    }
+
+    // Current figures and their cache key; nothing is rendered yet
+    public Report current(LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        Map<String, Object> figures = from == null ? revenueService.getDetailedRevenue()
+                : revenueService.getRevenueBetween(from, to);
+        String key = sha256(LAYOUT_VERSION + "|" + from + "|" + to + "|" + canonical(figures));
+        return new Report(key, from, to, figures);
+    }
+
+    // Ranges longer than this are only rendered by jobs, so they never hold a request thread
+    public boolean isLarge(LocalDate from, LocalDate to) {
+        return from != null
+                && ChronoUnit.MONTHS.between(from.withDayOfMonth(1), to.withDayOfMonth(1)) >= syncMaxMonths;
+    }
+
+    public long getSyncMaxMonths() {
+        return syncMaxMonths;
+    }
+
+    public Optional<Path> cached(String key) {
+        Path file = resolve(key);
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try {
+            // Keeps files that are still being downloaded clear of the retention sweep
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+        } catch (IOException e) {
+            log.debug("Could not touch report {}: {}", key, e.getMessage());
+        }
+        return Optional.of(file);
+    }
+
+    // The rendered file for these figures, rendering it first if no earlier download did
+    public Path file(Report report) {
+        Optional<Path> cached = cached(report.key());
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        Path target = resolve(report.key());
+        try {
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, report.key(), ".tmp");
+            try {
+                try (OutputStream out = Files.newOutputStream(temp)) {
+                    render(report, out);
+                }
+                // Same key means same figures, so losing a race to another renderer is harmless
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not render revenue report", e);
+        }
+        return target;
+    }
+
+    // A job already queued or running for the same range is returned instead of starting another
+    public ReportJob submit(LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        synchronized (jobs) {
+            Optional<ReportJob> active = jobs.asMap().values().stream()
+                    .filter(job -> job.status() == ReportJob.Status.PENDING
+                            || job.status() == ReportJob.Status.RUNNING)
+                    .filter(job -> Objects.equals(job.from(), from) && Objects.equals(job.to(), to))
+                    .findFirst();
+            if (active.isPresent()) {
+                return active.get();
+            }
+            ReportJob job = new ReportJob(UUID.randomUUID().toString(), from, to, ReportJob.Status.PENDING, null,
+                    null, LocalDateTime.now(), null);
+            jobs.put(job.id(), job);
+            workers.execute(() -> run(job));
+            return job;
+        }
+    }
+
+    public Optional<ReportJob> getJob(String id) {
+        return Optional.ofNullable(jobs.getIfPresent(id));
+    }
+
+    @Scheduled(cron = "${revenue.reports.purge-cron}")
+    public void purgeExpired() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        Instant cutoff = Instant.now().minus(retention);
+        int purged = 0;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                if (Files.getLastModifiedTime(file).toInstant().isBefore(cutoff) && Files.deleteIfExists(file)) {
+                    purged++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not purge revenue reports: {}", e.getMessage());
+        }
+        log.info("Purged {} expired revenue reports", purged);
+    }
+
+    private void run(ReportJob job) {
+        jobs.put(job.id(), job.with(ReportJob.Status.RUNNING, null, null));
+        try {
+            Report report = current(job.from(), job.to());
+            file(report);
+            jobs.put(job.id(), job.with(ReportJob.Status.COMPLETED, report.key(), null));
+        } catch (RuntimeException e) {
+            log.warn("Revenue report job {} failed", job.id(), e);
+            jobs.put(job.id(), job.with(ReportJob.Status.FAILED, null, e.getMessage()));
+        }
+    }
+
+    private void render(Report report, OutputStream out) {
+        Map<String, Object> data = report.figures();
+        Document document = new Document(new PdfDocument(new PdfWriter(out)));
+
+        document.add(new Paragraph("Revenue Analysis Report - Gym Management HQ").setFontSize(20).setBold());
+        if (report.from() != null) {
+            document.add(new Paragraph("Period: " + report.from() + " to " + report.to()));
+        }
+        document.add(new Paragraph("Generated on: " + LocalDateTime.now()));
+        document.add(new Paragraph("\n"));
+
+        document.add(new Paragraph("SUMMARY STATISTICS").setBold());
+        document.add(new Paragraph("Total Training Volume: ₹" + data.get("totalVolume")));
+        document.add(new Paragraph("Total HQ Commission (15%): ₹" + data.get("totalCommission")));
+        document.add(new Paragraph("Total Successful Bookings: " + data.get("totalBookings")));
+
+        document.add(new Paragraph("\nMONTHLY BREAKDOWN (COMMISSION)").setBold());
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> monthly = (List<Map<String, Object>>) data.get("monthlyRevenue");
+        if (monthly != null) {
+            for (Map<String, Object> m : monthly) {
+                document.add(new Paragraph(m.get("month") + ": ₹" + m.get("revenue")));
+            }
+        }
+
+        document.add(new Paragraph("\nREVENUE BY TRAINING TYPE").setBold());
+        @SuppressWarnings("unchecked")
+        Map<String, Double> typeRev = (Map<String, Double>) data.get("typeRevenue");
+        if (typeRev != null) {
+            new TreeMap<>(typeRev).forEach((type, rev) ->
+                    document.add(new Paragraph(type + ": ₹" + String.format("%.2f", rev))));
+        }
+
+        document.add(new Paragraph("\n\n(End of Official Report)"));
+        document.close();
+    }
+
+    private void checkRange(LocalDate from, LocalDate to) {
+        if ((from == null) != (to == null)) {
+            throw new IllegalArgumentException("Give both from and to, or neither");
+        }
+        if (from != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+    }
+
+    private Path resolve(String key) {
+        return directory.resolve(key + ".pdf");
+    }
+
+    // Map keys sorted at every level, so equal figures always hash the same
+    private static String canonical(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            return map.entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey((a, b) -> String.valueOf(a).compareTo(String.valueOf(b))))
+                    .map(e -> e.getKey() + "=" + canonical(e.getValue()))
+                    .collect(Collectors.joining(",", "{", "}"));
+        }
+        if (value instanceof List<?> list) {
+            return list.stream().map(RevenueReportService::canonical).collect(Collectors.joining(",", "[", "]"));
+        }
+        return String.valueOf(value);
+    }
+
+    private static String sha256(String text) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
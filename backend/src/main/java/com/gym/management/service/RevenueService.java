@@ -1,71 +1,207 @@
 package com.gym.management.service;
 
-import com.gym.management.model.Booking;
-import com.gym.management.model.Transaction;
+import com.gym.management.model.GymService;
+import com.gym.management.model.JobCheckpoint;
+import com.gym.management.model.RevenueDaily;
+import com.gym.management.model.TransactionStatus;
 import com.gym.management.model.TransactionType;
 import com.gym.management.repository.BookingRepository;
+import com.gym.management.repository.JobCheckpointRepository;
+import com.gym.management.repository.RevenueDailyRepository;
 import com.gym.management.repository.TransactionRepository;
+import com.gym.management.repository.projection.BookingDayTotal;
+import com.gym.management.repository.projection.DailyAmount;
+import com.gym.management.repository.projection.RevenueTotal;
+import com.gym.management.repository.projection.ServiceTypeAmount;
+import com.gym.management.repository.projection.TransactionDayTotal;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 
+// Revenue figures come from daily rollup rows that WalletService updates with each movement, so the report
+// reads a few hundred rows instead of the whole transaction history
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class RevenueService {
 
+    private static final String BACKFILL_JOB = "revenue-rollup-backfill";
+    private static final String DEPLOY_DAY_JOB = "revenue-rollup-deploy-day";
+    private static final Set<TransactionType> BOOKING_TYPES = EnumSet.of(
+            TransactionType.BOOKING, TransactionType.REVENUE, TransactionType.COMMISSION);
+
     private final TransactionRepository transactionRepository;
     private final BookingRepository bookingRepository;
+    private final RevenueDailyRepository rollupRepository;
+    private final JobCheckpointRepository checkpointRepository;
+
+    // Adds one movement to today's row for its type, service type and trainer
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(TransactionType type, GymService service, long amountMinor, long bookings) {
+        rollupRepository.add(LocalDate.now(), type.name(),
+                service == null || service.getType() == null ? "" : service.getType().name(),
+                service == null || service.getTrainer() == null ? 0 : service.getTrainer().getId(),
+                amountMinor, bookings);
+    }
+
+    // Rebuilds the rows of every day before the given one from the transaction and booking history. Days from
+    // `before` on are left to the live updates, so this can run while bookings are being taken; a later day would
+    // replace rows that live updates are still adding to.
+    @Transactional
+    public int backfill(LocalDate before) {
+        if (before.isAfter(LocalDate.now())) {
+            throw new IllegalArgumentException("Rollups can only be rebuilt for days before today");
+        }
+        int rows = rebuild(LocalDate.EPOCH, before);
+        saveCheckpoint(BACKFILL_JOB, before);
+        return rows;
+    }
+
+    // The first start with rollups fills in all history up to today. Today's rows then miss the movements made
+    // before the deploy, so the day is remembered and rebuilt from history once it is over.
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillOnce() {
+        if (!checkpointRepository.existsById(BACKFILL_JOB)) {
+            LocalDate today = LocalDate.now();
+            int rows = rebuild(LocalDate.EPOCH, today);
+            saveCheckpoint(BACKFILL_JOB, today);
+            saveCheckpoint(DEPLOY_DAY_JOB, today);
+            log.info("Backfilled {} revenue rollup rows", rows);
+        }
+        completeDeployDay();
+    }
+
+    @Scheduled(cron = "${revenue.rollups.deploy-day-cron}")
+    @Transactional
+    public void completeDeployDay() {
+        checkpointRepository.findById(DEPLOY_DAY_JOB)
+                .filter(checkpoint -> checkpoint.getPosition() < LocalDate.now().toEpochDay())
+                .ifPresent(checkpoint -> {
+                    LocalDate day = LocalDate.ofEpochDay(checkpoint.getPosition());
+                    int rows = rebuild(day, day.plusDays(1));
+                    checkpointRepository.delete(checkpoint);
+                    log.info("Rebuilt {} revenue rollup rows for deploy day {}", rows, day);
+                });
+    }
+
+    private int rebuild(LocalDate from, LocalDate before) {
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime cutoff = before.atStartOfDay();
+        rollupRepository.deleteDays(from, before);
+        List<RevenueDaily> rows = new ArrayList<>();
+        EnumSet<TransactionType> otherTypes = EnumSet.complementOf(EnumSet.copyOf(BOOKING_TYPES));
+        for (TransactionDayTotal total : transactionRepository.sumByDayAndType(TransactionStatus.SUCCESS, otherTypes,
+                start, cutoff)) {
+            rows.add(row(total.day(), total.type(), "", 0, LedgerService.toMinor(total.amount()),
+                    total.transactions(), 0));
+        }
+        // Booking movements carry no service, so they are derived from the bookings they paid for, with the
+        // commission split applied to each day's total
+        for (BookingDayTotal total : bookingRepository.sumByDayAndService(start, cutoff)) {
+            String serviceType = total.serviceType() == null ? "" : total.serviceType().name();
+            int trainerId = total.trainerId() == null ? 0 : total.trainerId();
+            long amountMinor = LedgerService.toMinor(total.amount());
+            long commissionMinor = WalletService.commissionMinor(amountMinor);
+            rows.add(row(total.day(), TransactionType.BOOKING, serviceType, trainerId, amountMinor,
+                    total.payments(), total.bookings()));
+            rows.add(row(total.day(), TransactionType.REVENUE, serviceType, trainerId,
+                    amountMinor - commissionMinor, total.payments(), 0));
+            rows.add(row(total.day(), TransactionType.COMMISSION, serviceType, trainerId, commissionMinor,
+                    total.payments(), 0));
+        }
+        rollupRepository.saveAll(rows);
+        return rows.size();
+    }
+
+    private void saveCheckpoint(String job, LocalDate day) {
+        checkpointRepository.save(JobCheckpoint.builder()
+                .name(job)
+                .position(day.toEpochDay())
+                .updatedAt(LocalDateTime.now())
+                .build());
+    }
+
+    private static RevenueDaily row(LocalDate day, TransactionType type, String serviceType, int trainerId,
+            long amountMinor, long transactions, long bookings) {
+        return RevenueDaily.builder()
+                .day(day)
+                .type(type)
+                .serviceType(serviceType)
+                .trainerId(trainerId)
+                .amountMinor(amountMinor)
+                .transactions(transactions)
+                .bookings(bookings)
+                .build();
+    }
 
     public Map<String, Object> getDetailedRevenue() {
-        List<Transaction> transactions = transactionRepository.findAll();
-        List<Booking> bookings = bookingRepository.findAll();
+        YearMonth thisMonth = YearMonth.now();
+        YearMonth firstMonth = thisMonth.minusMonths(5);
+        return report(rollupRepository.sumByType(), firstMonth, thisMonth,
+                rollupRepository.sumByDaySince(TransactionType.COMMISSION, firstMonth.atDay(1)),
+                rollupRepository.sumByServiceType(TransactionType.COMMISSION));
+    }
+
+    // The same figures restricted to the days from..to, with a monthly row for every month in the range
+    public Map<String, Object> getRevenueBetween(LocalDate from, LocalDate to) {
+        return report(rollupRepository.sumByTypeBetween(from, to), YearMonth.from(from), YearMonth.from(to),
+                rollupRepository.sumByDayBetween(TransactionType.COMMISSION, from, to),
+                rollupRepository.sumByServiceTypeBetween(TransactionType.COMMISSION, from, to));
+    }
+
+    private Map<String, Object> report(List<RevenueTotal> typeTotals, YearMonth firstMonth, YearMonth lastMonth,
+            List<DailyAmount> dailyCommission, List<ServiceTypeAmount> serviceTypeCommission) {
+        Map<TransactionType, RevenueTotal> totals = new EnumMap<>(TransactionType.class);
+        typeTotals.forEach(t -> totals.put(t.type(), t));
 
         Map<String, Object> report = new HashMap<>();
 
         // Overall stats
-        double totalVolume = transactions.stream()
-                .filter(t -> TransactionType.BOOKING.equals(t.getType()) || TransactionType.DEPOSIT.equals(t.getType()))
-                .mapToDouble(Transaction::getAmount).sum();
-
-        double totalCommission = transactions.stream()
-                .filter(t -> TransactionType.COMMISSION.equals(t.getType()))
-                .mapToDouble(Transaction::getAmount).sum();
+        long totalVolume = amountMinor(totals, TransactionType.BOOKING) + amountMinor(totals, TransactionType.DEPOSIT);
+        RevenueTotal booked = totals.get(TransactionType.BOOKING);
 
-        report.put("totalVolume", totalVolume);
-        report.put("totalCommission", totalCommission);
-        report.put("totalBookings", (long) bookings.size());
+        report.put("totalVolume", LedgerService.fromMinor(totalVolume));
+        report.put("totalCommission", LedgerService.fromMinor(amountMinor(totals, TransactionType.COMMISSION)));
+        report.put("totalBookings", booked == null ? 0L : booked.bookings());
 
-        // Revenue by month (last 6 months)
+        // Revenue by month
+        Map<YearMonth, Long> byMonth = new HashMap<>();
+        for (DailyAmount day : dailyCommission) {
+            byMonth.merge(YearMonth.from(day.day()), day.amountMinor(), Long::sum);
+        }
         List<Map<String, Object>> monthlyRevenue = new ArrayList<>();
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM yyyy");
-        for (int i = 5; i >= 0; i--) {
-            LocalDateTime start = LocalDateTime.now().minusMonths(i).withDayOfMonth(1).withHour(0).withMinute(0);
-            LocalDateTime end = start.plusMonths(1);
-
-            double monthRev = transactions.stream()
-                    .filter(t -> t.getCreatedAt().isAfter(start) && t.getCreatedAt().isBefore(end))
-                    .filter(t -> TransactionType.COMMISSION.equals(t.getType()))
-                    .mapToDouble(Transaction::getAmount).sum();
-
+        for (YearMonth month = firstMonth; !month.isAfter(lastMonth); month = month.plusMonths(1)) {
             Map<String, Object> monthData = new HashMap<>();
-            monthData.put("month", start.format(formatter));
-            monthData.put("revenue", monthRev);
+            monthData.put("month", month.format(formatter));
+            monthData.put("revenue", LedgerService.fromMinor(byMonth.getOrDefault(month, 0L)));
             monthlyRevenue.add(monthData);
         }
         report.put("monthlyRevenue", monthlyRevenue);
 
-        // Revenue by Training Type
+        // Commission by Training Type
         Map<String, Double> typeRevenue = new HashMap<>();
-        bookings.forEach(b -> {
-            String type = b.getService().getType().name();
-            // Using 15% commission as defined in WalletService
-            typeRevenue.put(type, typeRevenue.getOrDefault(type, 0.0) + b.getTotalAmount() * 0.15);
-        });
+        serviceTypeCommission
+                .forEach(t -> typeRevenue.put(t.serviceType(), LedgerService.fromMinor(t.amountMinor())));
         report.put("typeRevenue", typeRevenue);
 
         return report;
     }
+
+    private static long amountMinor(Map<TransactionType, RevenueTotal> totals, TransactionType type) {
+        RevenueTotal total = totals.get(type);
+        return total == null ? 0 : total.amountMinor();
+    }
 }
@@ -0,0 +1,202 @@
+package com.gym.management.service;
+
+import com.gym.management.model.GymService;
+import com.gym.management.model.ServiceStatus;
+import com.gym.management.model.ServiceType;
+import com.gym.management.repository.GymServiceRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+// Inverted index over approved services' name, description and address, ranked with BM25
+@Service
+@RequiredArgsConstructor
+public class SearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double NAME_WEIGHT = 3.0;
+    private static final double PREFIX_WEIGHT = 0.5;
+    private static final int MAX_PREFIX_EXPANSIONS = 50;
+    private static final Pattern SPLIT = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private final GymServiceRepository gymServiceRepository;
+
+    // term -> (serviceId -> weighted term frequency); sorted so prefixes are a range scan
+    private final NavigableMap<String, Map<Integer, Double>> postings = new TreeMap<>();
+    private final Map<Integer, Document> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private double totalLength;
+
+    public record Match(Integer serviceId, double score) {
+    }
+
+    private record Document(ServiceType type, double length, Set<String> terms) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<GymService> approved = gymServiceRepository.findByStatus(ServiceStatus.APPROVED);
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            totalLength = 0;
+            approved.forEach(this::insert);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void onStatusChange(GymService service) {
+        lock.writeLock().lock();
+        try {
+            remove(service.getId());
+            if (service.getStatus() == ServiceStatus.APPROVED) {
+                insert(service);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Match> search(String query, ServiceType type, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            if (documents.isEmpty()) {
+                return List.of();
+            }
+            double averageLength = totalLength / documents.size();
+            for (int i = 0; i < tokens.size(); i++) {
+                String token = tokens.get(i);
+                // The last token is still being typed, so it also matches longer terms at a discount
+                boolean prefix = i == tokens.size() - 1;
+                Map<String, Map<Integer, Double>> terms = prefix
+                        ? postings.subMap(token, true, token + Character.MAX_VALUE, false)
+                        : postings.containsKey(token) ? Map.of(token, postings.get(token)) : Map.of();
+                int expanded = 0;
+                for (Map.Entry<String, Map<Integer, Double>> term : terms.entrySet()) {
+                    if (expanded++ == MAX_PREFIX_EXPANSIONS) {
+                        break;
+                    }
+                    double weight = term.getKey().equals(token) ? 1.0 : PREFIX_WEIGHT;
+                    score(term.getValue(), weight, type, averageLength, scores);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return scores.entrySet().stream()
+                .map(e -> new Match(e.getKey(), e.getValue()))
+                .sorted(Comparator.comparingDouble(Match::score).reversed().thenComparing(Match::serviceId))
+                .limit(limit)
+                .toList();
+    }
+
+    public List<String> autocomplete(String query, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        String last = tokens.get(tokens.size() - 1);
+        String leading = String.join(" ", tokens.subList(0, tokens.size() - 1));
+        lock.readLock().lock();
+        try {
+            return postings.subMap(last, true, last + Character.MAX_VALUE, false).entrySet().stream()
+                    .sorted(Comparator.comparingInt((Map.Entry<String, Map<Integer, Double>> e) -> e.getValue().size())
+                            .reversed()
+                            .thenComparing(Map.Entry::getKey))
+                    .limit(limit)
+                    .map(e -> leading.isEmpty() ? e.getKey() : leading + " " + e.getKey())
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void score(Map<Integer, Double> posting, double weight, ServiceType type, double averageLength,
+            Map<Integer, Double> scores) {
+        int n = documents.size();
+        int df = posting.size();
+        double idf = Math.log(1 + (n - df + 0.5) / (df + 0.5));
+        for (Map.Entry<Integer, Double> entry : posting.entrySet()) {
+            Document document = documents.get(entry.getKey());
+            if (type != null && type != document.type()) {
+                continue;
+            }
+            double tf = entry.getValue();
+            double norm = tf + K1 * (1 - B + B * document.length() / averageLength);
+            scores.merge(entry.getKey(), weight * idf * tf * (K1 + 1) / norm, Double::sum);
+        }
+    }
+
+    private void insert(GymService service) {
+        Map<String, Double> frequencies = new HashMap<>();
+        double length = 0;
+        length += addField(service.getName(), NAME_WEIGHT, frequencies);
+        length += addField(service.getDescription(), 1.0, frequencies);
+        length += addField(service.getAddress(), 1.0, frequencies);
+
+        frequencies.forEach((term, tf) -> postings.computeIfAbsent(term, t -> new HashMap<>())
+                .put(service.getId(), tf));
+        documents.put(service.getId(), new Document(service.getType(), length, frequencies.keySet()));
+        totalLength += length;
+    }
+
+    private void remove(Integer serviceId) {
+        Document document = documents.remove(serviceId);
+        if (document == null) {
+            return;
+        }
+        totalLength -= document.length();
+        for (String term : document.terms()) {
+            Map<Integer, Double> posting = postings.get(term);
+            posting.remove(serviceId);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private double addField(String text, double weight, Map<String, Double> frequencies) {
+        List<String> tokens = tokenize(text);
+        tokens.forEach(token -> frequencies.merge(token, weight, Double::sum));
+        return tokens.size() * weight;
+    }
+
+    private static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : SPLIT.split(folded)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,124 @@
+package com.gym.management.service;
+
+import com.gym.management.model.GymService;
+import com.gym.management.model.ServiceSlot;
+import com.gym.management.model.ServiceType;
+import com.gym.management.repository.GymServiceRepository;
+import com.gym.management.repository.ServiceSlotRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+@Service
+public class SlotService {
+
+    private static final Set<ServiceType> GROUP_TYPES = EnumSet.of(ServiceType.GROUP_CLASSES, ServiceType.ZUMBA,
+            ServiceType.CROSSFIT);
+
+    private final ServiceSlotRepository slotRepository;
+    private final GymServiceRepository gymServiceRepository;
+    private final int defaultGroupCapacity;
+
+    public SlotService(ServiceSlotRepository slotRepository, GymServiceRepository gymServiceRepository,
+            @Value("${booking.group-class.default-capacity}") int defaultGroupCapacity) {
+        this.slotRepository = slotRepository;
+        this.gymServiceRepository = gymServiceRepository;
+        this.defaultGroupCapacity = defaultGroupCapacity;
+    }
+
+    // Services without an explicit capacity fall back by type; null means unlimited
+    public Integer capacityOf(GymService service) {
+        if (service.getCapacity() != null) {
+            return service.getCapacity();
+        }
+        if (service.getType() == ServiceType.PERSONAL_TRAINING) {
+            return 1;
+        }
+        return GROUP_TYPES.contains(service.getType()) ? defaultGroupCapacity : null;
+    }
+
+    public LocalDateTime slotStart(LocalDateTime bookingDate) {
+        return bookingDate.truncatedTo(ChronoUnit.MINUTES);
+    }
+
+    // Called ahead of the booking transaction so the first rush on a new slot only races on this short insert
+    public void open(Integer serviceId, LocalDateTime bookingDate) {
+        GymService service = gymServiceRepository.findById(serviceId)
+                .orElseThrow(() -> new RuntimeException("Training program not found"));
+        Integer capacity = capacityOf(service);
+        if (capacity == null) {
+            return;
+        }
+        if (bookingDate == null) {
+            throw new RuntimeException("A session time is required for this class");
+        }
+        LocalDateTime start = slotStart(bookingDate);
+        if (!slotRepository.existsByServiceIdAndStartTime(serviceId, start)) {
+            slotRepository.createIfAbsent(serviceId, start, capacity);
+        }
+    }
+
+    // Plain read without locks: once a slot is sold out, late arrivals are turned away before any payment work
+    public void checkAvailable(GymService service, LocalDateTime bookingDate) {
+        if (capacityOf(service) == null) {
+            return;
+        }
+        if (bookingDate == null) {
+            throw new RuntimeException("A session time is required for this class");
+        }
+        slotRepository.findByServiceIdAndStartTime(service.getId(), slotStart(bookingDate))
+                .filter(slot -> slot.getBooked() >= slot.getCapacity())
+                .ifPresent(slot -> {
+                    throw new RuntimeException("This timeslot is fully booked");
+                });
+    }
+
+    // Atomic conditional increment: only this slot's row is locked, and only until the caller commits.
+    // Returns the session's capacity when this seat was its first, otherwise 0.
+    @Transactional
+    public int claimSeat(GymService service, LocalDateTime bookingDate) {
+        Integer capacity = capacityOf(service);
+        if (capacity == null) {
+            return 0;
+        }
+        LocalDateTime start = slotStart(bookingDate);
+        int claimed = slotRepository.claimSeat(service.getId(), start);
+        if (claimed == 0 && !slotRepository.existsByServiceIdAndStartTime(service.getId(), start)) {
+            slotRepository.createIfAbsent(service.getId(), start, capacity);
+            claimed = slotRepository.claimSeat(service.getId(), start);
+        }
+        if (claimed == 0) {
+            throw new RuntimeException("This timeslot is fully booked");
+        }
+        // The row stays locked by this transaction, so the count read back is the one this claim produced
+        return slotRepository.findCapacityIfFirstSeat(service.getId(), start).orElse(0);
+    }
+
+    public Map<String, Object> getAvailability(Integer serviceId, LocalDateTime bookingDate) {
+        GymService service = gymServiceRepository.findById(serviceId)
+                .orElseThrow(() -> new RuntimeException("Training program not found"));
+        LocalDateTime start = slotStart(bookingDate);
+        Integer capacity = capacityOf(service);
+        Integer booked = null;
+        if (capacity != null) {
+            Optional<ServiceSlot> slot = slotRepository.findByServiceIdAndStartTime(serviceId, start);
+            capacity = slot.map(ServiceSlot::getCapacity).orElse(capacity);
+            booked = slot.map(ServiceSlot::getBooked).orElse(0);
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("serviceId", serviceId);
+        result.put("startTime", start);
+        result.put("capacity", capacity);
+        result.put("booked", booked);
+        result.put("remaining", capacity == null ? null : Math.max(0, capacity - booked));
+        return result;
+    }
+}
@@ -0,0 +1,223 @@
+package com.gym.management.service;
+
+import com.gym.management.dto.TrainerAnalyticsResponse;
+import com.gym.management.model.GymService;
+import com.gym.management.model.JobCheckpoint;
+import com.gym.management.model.TrainerMonthly;
+import com.gym.management.model.TrainerStats;
+import com.gym.management.model.TransactionStatus;
+import com.gym.management.model.TransactionType;
+import com.gym.management.model.User;
+import com.gym.management.repository.BookingRepository;
+import com.gym.management.repository.JobCheckpointRepository;
+import com.gym.management.repository.ReviewRepository;
+import com.gym.management.repository.ServiceSlotRepository;
+import com.gym.management.repository.TrainerClientRepository;
+import com.gym.management.repository.TrainerMonthlyRepository;
+import com.gym.management.repository.TrainerStatsRepository;
+import com.gym.management.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Per-trainer totals and monthly trends, updated in the same transaction as the bookings, revenue credits and
+// reviews they count. A dashboard read is one stats row plus at most a year of monthly rows, however many
+// sessions the trainer has taught.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TrainerAnalyticsService {
+
+    private static final String BACKFILL_JOB = "trainer-analytics-backfill";
+    private static final int TREND_MONTHS = 12;
+    private static final Object REBUILD_LOCK_HELD = new Object();
+
+    private final TrainerStatsRepository statsRepository;
+    private final TrainerMonthlyRepository monthlyRepository;
+    private final TrainerClientRepository clientRepository;
+    private final BookingRepository bookingRepository;
+    private final ReviewRepository reviewRepository;
+    private final TransactionRepository transactionRepository;
+    private final ServiceSlotRepository slotRepository;
+    private final JobCheckpointRepository checkpointRepository;
+
+    // seatsBooked and seatsOpened only count capacity-limited sessions; seatsOpened is the capacity of sessions
+    // whose first seat these bookings took
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordBookings(GymService service, User member, int bookings, int seatsBooked, int seatsOpened) {
+        lockAgainstRebuild();
+        Integer trainerId = service.getTrainer().getId();
+        int newClients = clientRepository.addIfAbsent(trainerId, member.getId());
+        statsRepository.add(trainerId, bookings, newClients, 0, seatsBooked, seatsOpened, 0, 0);
+        monthlyRepository.add(trainerId, thisMonth(), bookings, 0, 0, 0);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordEarnings(Integer trainerId, long amountMinor) {
+        lockAgainstRebuild();
+        statsRepository.add(trainerId, 0, 0, amountMinor, 0, 0, 0, 0);
+        monthlyRepository.add(trainerId, thisMonth(), 0, amountMinor, 0, 0);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordRating(Integer trainerId, int rating) {
+        lockAgainstRebuild();
+        statsRepository.add(trainerId, 0, 0, 0, 0, 0, rating, 1);
+        monthlyRepository.add(trainerId, thisMonth(), 0, 0, rating, 1);
+    }
+
+    public TrainerAnalyticsResponse getAnalytics(Integer trainerId) {
+        TrainerStats stats = statsRepository.findById(trainerId)
+                .orElseGet(() -> TrainerStats.builder().trainerId(trainerId).build());
+        YearMonth last = YearMonth.now();
+        YearMonth first = last.minusMonths(TREND_MONTHS - 1);
+        Map<LocalDate, TrainerMonthly> rows = monthlyRepository
+                .findByTrainerIdAndMonthGreaterThanEqualOrderByMonth(trainerId, first.atDay(1)).stream()
+                .collect(Collectors.toMap(TrainerMonthly::getMonth, Function.identity()));
+
+        List<TrainerAnalyticsResponse.Month> monthly = new ArrayList<>();
+        for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+            TrainerMonthly row = rows.get(month.atDay(1));
+            monthly.add(TrainerAnalyticsResponse.Month.builder()
+                    .month(month.toString())
+                    .bookings(row == null ? 0 : row.getBookings())
+                    .earnings(LedgerService.fromMinor(row == null ? 0 : row.getEarningsMinor()))
+                    .averageRating(row == null ? null : average(row.getRatingSum(), row.getReviewCount()))
+                    .reviewCount(row == null ? 0 : row.getReviewCount())
+                    .build());
+        }
+
+        return TrainerAnalyticsResponse.builder()
+                .trainerId(trainerId)
+                .totalBookings(stats.getBookings())
+                .distinctClients(stats.getClients())
+                .totalEarnings(LedgerService.fromMinor(stats.getEarningsMinor()))
+                .seatsBooked(stats.getSeatsBooked())
+                .seatsOffered(stats.getSeatsOffered())
+                .utilization(stats.getSeatsOffered() == 0 ? null
+                        : (double) stats.getSeatsBooked() / stats.getSeatsOffered())
+                .averageRating(average(stats.getRatingSum(), stats.getReviewCount()))
+                .reviewCount(stats.getReviewCount())
+                .monthly(monthly)
+                .build();
+    }
+
+    // Bookings, credits and reviews written before these aggregates existed are counted once, on first start
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillOnce() {
+        if (checkpointRepository.existsById(BACKFILL_JOB)) {
+            return;
+        }
+        int trainers = rebuild();
+        log.info("Backfilled analytics for {} trainers", trainers);
+    }
+
+    // Updates arriving meanwhile wait for the rebuild to commit and then add on top of it, and the rebuild waits
+    // for updates already made to commit, so it reads what they counted
+    @Transactional
+    public int rebuild() {
+        checkpointRepository.createIfAbsent(BACKFILL_JOB);
+        checkpointRepository.lockExclusive(BACKFILL_JOB);
+        statsRepository.deleteAllInBatch();
+        monthlyRepository.deleteAllInBatch();
+        clientRepository.deleteAllInBatch();
+        clientRepository.addFromBookings();
+
+        Map<Integer, TrainerStats> stats = new HashMap<>();
+        Map<String, TrainerMonthly> months = new HashMap<>();
+        for (Object[] row : bookingRepository.countByTrainerAndMonth()) {
+            long bookings = (Long) row[3];
+            TrainerStats trainer = stats(stats, row[0]);
+            trainer.setBookings(trainer.getBookings() + bookings);
+            TrainerMonthly month = month(months, row);
+            month.setBookings(month.getBookings() + bookings);
+        }
+        for (Object[] row : transactionRepository.sumByOwnerAndMonth(TransactionType.REVENUE,
+                TransactionStatus.SUCCESS)) {
+            long earningsMinor = LedgerService.toMinor((Double) row[3]);
+            TrainerStats trainer = stats(stats, row[0]);
+            trainer.setEarningsMinor(trainer.getEarningsMinor() + earningsMinor);
+            TrainerMonthly month = month(months, row);
+            month.setEarningsMinor(month.getEarningsMinor() + earningsMinor);
+        }
+        for (Object[] row : reviewRepository.sumRatingsByTrainerAndMonth()) {
+            long ratingSum = (Long) row[3];
+            long reviews = (Long) row[4];
+            TrainerStats trainer = stats(stats, row[0]);
+            trainer.setRatingSum(trainer.getRatingSum() + ratingSum);
+            trainer.setReviewCount(trainer.getReviewCount() + reviews);
+            TrainerMonthly month = month(months, row);
+            month.setRatingSum(month.getRatingSum() + ratingSum);
+            month.setReviewCount(month.getReviewCount() + reviews);
+        }
+        for (Object[] row : slotRepository.sumSeatsByTrainer()) {
+            TrainerStats trainer = stats(stats, row[0]);
+            trainer.setSeatsBooked((Long) row[1]);
+            trainer.setSeatsOffered((Long) row[2]);
+        }
+        for (Object[] row : clientRepository.countByTrainer()) {
+            stats(stats, row[0]).setClients((Long) row[1]);
+        }
+
+        statsRepository.saveAll(stats.values());
+        monthlyRepository.saveAll(months.values());
+        checkpointRepository.save(JobCheckpoint.builder()
+                .name(BACKFILL_JOB)
+                .updatedAt(LocalDateTime.now())
+                .build());
+        return stats.size();
+    }
+
+    // A booking records its sessions and then its earnings; the shared lock is held to commit, so one query a
+    // transaction is enough
+    private void lockAgainstRebuild() {
+        if (TransactionSynchronizationManager.hasResource(REBUILD_LOCK_HELD)) {
+            return;
+        }
+        checkpointRepository.lockShared(BACKFILL_JOB);
+        TransactionSynchronizationManager.bindResource(REBUILD_LOCK_HELD, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResource(REBUILD_LOCK_HELD);
+            }
+        });
+    }
+
+    private static TrainerStats stats(Map<Integer, TrainerStats> stats, Object trainerId) {
+        return stats.computeIfAbsent((Integer) trainerId, id -> TrainerStats.builder().trainerId(id).build());
+    }
+
+    // Rows start with [trainerId, year, month]
+    private static TrainerMonthly month(Map<String, TrainerMonthly> months, Object[] row) {
+        Integer trainerId = (Integer) row[0];
+        LocalDate month = LocalDate.of((Integer) row[1], (Integer) row[2], 1);
+        return months.computeIfAbsent(trainerId + "|" + month,
+                key -> TrainerMonthly.builder().trainerId(trainerId).month(month).build());
+    }
+
+    private static LocalDate thisMonth() {
+        return LocalDate.now().withDayOfMonth(1);
+    }
+
+    private static Double average(long sum, long count) {
+        return count == 0 ? null : (double) sum / count;
+    }
+}
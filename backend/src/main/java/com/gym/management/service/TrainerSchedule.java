@@ -0,0 +1,201 @@
+package com.gym.management.service;
+
+import com.gym.management.dto.TrainerCalendarResponse;
+import com.gym.management.model.GymService;
+import com.gym.management.repository.BookingRepository;
+import com.gym.management.repository.GymServiceRepository;
+import com.gym.management.repository.projection.BookedSession;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Per-trainer interval trees of booked sessions that have not ended yet, loaded on first use, updated as bookings
+// are made and pruned as sessions end, so their size follows the trainer's upcoming schedule rather than history.
+// Sessions that have already ended cannot be booked, so they are never needed for an overlap check.
+//
+// The trees live in this process only. They see the database as it was when each trainer was loaded, plus bookings
+// made through this instance, so the overlap check assumes a single application instance: with several instances,
+// each can accept one of two overlapping bookings.
+@Service
+public class TrainerSchedule {
+
+    private final BookingRepository bookingRepository;
+    private final GymServiceRepository gymServiceRepository;
+    private final int defaultSessionMinutes;
+    private final Map<Integer, Schedule> schedules = new ConcurrentHashMap<>();
+
+    public TrainerSchedule(BookingRepository bookingRepository, GymServiceRepository gymServiceRepository,
+            @Value("${booking.session-minutes}") int defaultSessionMinutes) {
+        this.bookingRepository = bookingRepository;
+        this.gymServiceRepository = gymServiceRepository;
+        this.defaultSessionMinutes = defaultSessionMinutes;
+    }
+
+    // Members joining the same session of a service share the trainer's time; any other overlap is a double booking.
+    // The reservation is dropped again if the surrounding booking transaction does not commit.
+    public void reserve(GymService service, LocalDateTime start) {
+        if (start == null) {
+            return;
+        }
+        Integer trainerId = service.getTrainer().getId();
+        Session session = session(service.getId(), start, service.getSessionMinutes());
+        if (session.end() <= toMinutes(LocalDateTime.now())) {
+            throw new RuntimeException("This session has already ended");
+        }
+        Schedule schedule = schedule(trainerId);
+        synchronized (schedule) {
+            Session conflict = schedule.tree.findFirst(session.start(), session.end(), s -> !s.equals(session));
+            if (conflict != null) {
+                throw new RuntimeException("Trainer is already booked from " + toDateTime(conflict.start()) + " to "
+                        + toDateTime(conflict.end()));
+            }
+            schedule.add(session, 1);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        synchronized (schedule) {
+                            schedule.add(session, -1);
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    // Busy blocks cover sessions that have not ended; earlier ones have been pruned
+    public TrainerCalendarResponse getCalendar(Integer trainerId, LocalDateTime from, LocalDateTime to) {
+        long windowStart = toMinutes(from);
+        long windowEnd = toMinutes(to);
+        List<TrainerCalendarResponse.Block> busy = new ArrayList<>();
+        Schedule schedule = schedule(trainerId);
+        synchronized (schedule) {
+            schedule.tree.forEachOverlapping(windowStart, windowEnd, s -> busy.add(TrainerCalendarResponse.Block
+                    .builder()
+                    .start(toDateTime(s.start()))
+                    .end(toDateTime(s.end()))
+                    .serviceId(s.serviceId())
+                    .bookings(schedule.bookings.get(s))
+                    .build()));
+        }
+
+        // Busy blocks arrive in start order, so the gaps between them are the free time
+        List<TrainerCalendarResponse.Block> free = new ArrayList<>();
+        long cursor = windowStart;
+        for (TrainerCalendarResponse.Block block : busy) {
+            long blockStart = toMinutes(block.getStart());
+            if (blockStart > cursor) {
+                free.add(TrainerCalendarResponse.Block.builder()
+                        .start(toDateTime(cursor)).end(toDateTime(blockStart)).build());
+            }
+            cursor = Math.max(cursor, toMinutes(block.getEnd()));
+        }
+        if (cursor < windowEnd) {
+            free.add(TrainerCalendarResponse.Block.builder()
+                    .start(toDateTime(cursor)).end(toDateTime(windowEnd)).build());
+        }
+
+        return TrainerCalendarResponse.builder()
+                .trainerId(trainerId)
+                .from(from)
+                .to(to)
+                .busy(busy)
+                .free(free)
+                .build();
+    }
+
+    @Scheduled(fixedDelayString = "${booking.schedule.prune-interval-ms}")
+    public void dropEndedSessions() {
+        long now = toMinutes(LocalDateTime.now());
+        for (Schedule schedule : schedules.values()) {
+            synchronized (schedule) {
+                schedule.dropEndedBy(now);
+            }
+        }
+    }
+
+    private Schedule schedule(Integer trainerId) {
+        Schedule schedule = schedules.computeIfAbsent(trainerId, id -> new Schedule());
+        synchronized (schedule) {
+            if (!schedule.loaded) {
+                // Only sessions starting within the trainer's longest session of now can still be running
+                LocalDateTime now = LocalDateTime.now();
+                Integer longest = gymServiceRepository.findLongestSessionMinutes(trainerId);
+                LocalDateTime since = now.minusMinutes(Math.max(sessionMinutes(longest), defaultSessionMinutes));
+                for (BookedSession booked : bookingRepository.findBookedSessionsSince(trainerId, since)) {
+                    schedule.add(session(booked.serviceId(), booked.start(), booked.sessionMinutes()),
+                            booked.bookings().intValue());
+                }
+                schedule.dropEndedBy(toMinutes(now));
+                schedule.loaded = true;
+            }
+        }
+        return schedule;
+    }
+
+    private Session session(Integer serviceId, LocalDateTime start, Integer sessionMinutes) {
+        long startMinute = toMinutes(start.truncatedTo(ChronoUnit.MINUTES));
+        return new Session(serviceId, startMinute, startMinute + sessionMinutes(sessionMinutes));
+    }
+
+    private int sessionMinutes(Integer sessionMinutes) {
+        return sessionMinutes != null && sessionMinutes > 0 ? sessionMinutes : defaultSessionMinutes;
+    }
+
+    private static long toMinutes(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    private static LocalDateTime toDateTime(long minutes) {
+        return LocalDateTime.ofEpochSecond(minutes * 60, 0, ZoneOffset.UTC);
+    }
+
+    private record Session(Integer serviceId, long start, long end) implements Comparable<Session> {
+        @Override
+        public int compareTo(Session other) {
+            int cmp = Integer.compare(serviceId, other.serviceId);
+            return cmp != 0 ? cmp : Long.compare(end, other.end);
+        }
+    }
+
+    private static final class Schedule {
+        final IntervalTree<Session> tree = new IntervalTree<>();
+        final Map<Session, Integer> bookings = new HashMap<>();
+        boolean loaded;
+
+        // Sessions stay in the tree while at least one booking holds them
+        void add(Session session, int count) {
+            int total = bookings.getOrDefault(session, 0) + count;
+            if (total > 0) {
+                if (bookings.put(session, total) == null) {
+                    tree.insert(session.start(), session.end(), session);
+                }
+            } else if (bookings.remove(session) != null) {
+                tree.remove(session.start(), session);
+            }
+        }
+
+        void dropEndedBy(long minute) {
+            bookings.keySet().removeIf(session -> {
+                if (session.end() > minute) {
+                    return false;
+                }
+                tree.remove(session.start(), session);
+                return true;
+            });
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.gym.management.service;
+
+import com.gym.management.dto.AnalyticsQueryRequest;
+import com.gym.management.dto.AnalyticsQueryRequest.Dimension;
+import com.gym.management.repository.TransactionRepository;
+import com.gym.management.repository.projection.TransactionFact;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Ad-hoc slicing of the transaction history, served from an in-memory TransactionColumns copy of the table.
+// The copy is streamed in once at startup and then topped up on its own thread with rows created since the last
+// refresh; transaction rows are never updated after they are written, so appending is enough to stay current.
+@Slf4j
+@Service
+public class TransactionAnalytics {
+
+    private static final LocalDateTime BEGINNING = LocalDate.EPOCH.atStartOfDay();
+    private static final int DEFAULT_LIMIT = 1000;
+    private static final int MAX_LIMIT = 10000;
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate readTemplate;
+    private final TransactionColumns columns = new TransactionColumns();
+    private final long refreshIntervalMs;
+    private final Duration commitLag;
+    private final ScheduledExecutorService refresher;
+    private LocalDateTime refreshFrom = BEGINNING;
+    private volatile LocalDateTime asOf;
+
+    public TransactionAnalytics(TransactionRepository transactionRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${analytics.columns.refresh-interval-ms}") long refreshIntervalMs,
+            @Value("${analytics.columns.commit-lag-seconds}") long commitLagSeconds) {
+        this.transactionRepository = transactionRepository;
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setReadOnly(true);
+        this.refreshIntervalMs = refreshIntervalMs;
+        this.commitLag = Duration.ofSeconds(commitLagSeconds);
+        // The initial load takes a while on a large table, so it runs off the shared scheduler thread
+        this.refresher = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "transaction-analytics"));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startLoading() {
+        refresher.scheduleWithFixedDelay(this::refresh, 0, refreshIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void close() {
+        refresher.shutdownNow();
+    }
+
+    public boolean isReady() {
+        return asOf != null;
+    }
+
+    public Map<String, Object> query(AnalyticsQueryRequest request) {
+        List<Dimension> groupBy = request.getGroupBy() == null ? List.of()
+                : request.getGroupBy().stream().distinct().toList();
+        TransactionColumns.Result result = columns.scan(new TransactionColumns.Query(request.getFrom(),
+                request.getTo(), request.getTypes(), request.getStatuses(), request.getGateways(),
+                request.getUserIds(), groupBy));
+        int limit = request.getLimit() == null ? DEFAULT_LIMIT : Math.max(1, Math.min(request.getLimit(), MAX_LIMIT));
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (TransactionColumns.Group group : result.groups().subList(0, Math.min(limit, result.groups().size()))) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int d = 0; d < groupBy.size(); d++) {
+                Object value = group.values()[d];
+                row.put(groupBy.get(d).name().toLowerCase(Locale.ROOT), value == null ? null : value.toString());
+            }
+            row.put("amount", LedgerService.fromMinor(group.amountMinor()));
+            row.put("count", group.count());
+            rows.add(row);
+        }
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("asOf", asOf);
+        response.put("scannedRows", result.scannedRows());
+        response.put("matchedRows", result.matchedRows());
+        response.put("groups", result.groups().size());
+        response.put("truncated", result.groups().size() > limit);
+        response.put("rows", rows);
+        return response;
+    }
+
+    private void refresh() {
+        try {
+            LocalDateTime started = LocalDateTime.now();
+            boolean initial = asOf == null;
+            int added = readTemplate.execute(status -> {
+                try (Stream<TransactionFact> facts = transactionRepository.streamFactsSince(refreshFrom)) {
+                    int count = 0;
+                    for (TransactionFact fact : (Iterable<TransactionFact>) facts::iterator) {
+                        if (columns.append(fact.id(), fact.createdAt().toLocalDate(), fact.type(), fact.status(),
+                                fact.gateway(), fact.userId(), LedgerService.toMinor(fact.amount()))
+                                && ++count % TransactionColumns.SEGMENT_SIZE == 0) {
+                            columns.publish();
+                        }
+                    }
+                    return count;
+                }
+            });
+            columns.publish();
+            // createdAt is stamped before the row commits, so each refresh re-reads a window behind the previous
+            // one to catch rows that committed late; rows already stored are skipped by id
+            refreshFrom = started.minus(commitLag);
+            asOf = started;
+            if (initial) {
+                log.info("Loaded {} transactions into the analytics column store", columns.size());
+            } else if (added > 0) {
+                log.debug("Appended {} transactions to the analytics column store", added);
+            }
+        } catch (RuntimeException e) {
+            // An exception would cancel the fixed-delay schedule, so log and retry on the next tick
+            log.warn("Analytics column store refresh failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,456 @@
+package com.gym.management.service;
+
+import com.gym.management.dto.AnalyticsQueryRequest.Dimension;
+import com.gym.management.model.TransactionStatus;
+import com.gym.management.model.TransactionType;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+// Append-only column store of transactions. Rows live in fixed-size segments of primitive arrays, with gateways
+// and wallet owners dictionary-encoded to dense ints. A scan narrows each segment to a selection vector one
+// column at a time, packs the group-by codes of the survivors into a long key and sums into a primitive hash
+// table; segments are scanned in parallel and their tables merged. One writer appends and publishes, readers
+// scan the last published view without locking.
+final class TransactionColumns {
+
+    static final int SEGMENT_SIZE = 1 << 16;
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final TransactionStatus[] STATUSES = TransactionStatus.values();
+    private static final long ALL = -1L;
+    // Up to this many group-by combinations, partial sums go to arrays indexed by key instead of a hash table
+    private static final long DENSE_GROUPS = SEGMENT_SIZE;
+
+    private final List<Segment> segments = new ArrayList<>();
+    private final Map<String, Integer> gatewayCodes = new HashMap<>();
+    private final List<String> gateways = new ArrayList<>();
+    private final Map<Integer, Integer> userCodes = new HashMap<>();
+    private int[] users = new int[1024];
+    private int userCount;
+    private final BitSet storedIds = new BitSet();
+    private int rows;
+    private int minDay = Integer.MAX_VALUE;
+    private int maxDay = Integer.MIN_VALUE;
+    private volatile View view = new View(new Segment[0], 0, 0, 0, new String[0], new int[0]);
+
+    record Query(LocalDate from, LocalDate to, Collection<TransactionType> types,
+            Collection<TransactionStatus> statuses, Collection<String> gateways, Collection<Integer> userIds,
+            List<Dimension> groupBy) {
+    }
+
+    // values line up with the query's groupBy
+    record Group(Object[] values, long amountMinor, long count) {
+    }
+
+    record Result(List<Group> groups, long scannedRows, long matchedRows) {
+    }
+
+    private record View(Segment[] segments, int rows, int minDay, int maxDay, String[] gateways, int[] users) {
+    }
+
+    private static final class Segment {
+        private final int[] days = new int[SEGMENT_SIZE];
+        private final byte[] types = new byte[SEGMENT_SIZE];
+        private final byte[] statuses = new byte[SEGMENT_SIZE];
+        private final int[] gateways = new int[SEGMENT_SIZE];
+        private final int[] users = new int[SEGMENT_SIZE];
+        private final long[] amounts = new long[SEGMENT_SIZE];
+    }
+
+    // False when the id is already stored; appended rows stay invisible to scans until publish()
+    synchronized boolean append(int id, LocalDate day, TransactionType type, TransactionStatus status,
+            String gateway, int userId, long amountMinor) {
+        if (storedIds.get(id)) {
+            return false;
+        }
+        storedIds.set(id);
+        int offset = rows % SEGMENT_SIZE;
+        if (offset == 0) {
+            segments.add(new Segment());
+        }
+        Segment segment = segments.get(segments.size() - 1);
+        int epochDay = (int) day.toEpochDay();
+        segment.days[offset] = epochDay;
+        segment.types[offset] = (byte) (type == null ? TYPES.length : type.ordinal());
+        segment.statuses[offset] = (byte) (status == null ? STATUSES.length : status.ordinal());
+        segment.gateways[offset] = gatewayCode(gateway);
+        segment.users[offset] = userCode(userId);
+        segment.amounts[offset] = amountMinor;
+        minDay = Math.min(minDay, epochDay);
+        maxDay = Math.max(maxDay, epochDay);
+        rows++;
+        return true;
+    }
+
+    synchronized void publish() {
+        View current = view;
+        if (current.rows() == rows) {
+            return;
+        }
+        view = new View(segments.toArray(new Segment[0]), rows, minDay, maxDay,
+                current.gateways().length == gateways.size() ? current.gateways() : gateways.toArray(new String[0]),
+                current.users().length == userCount ? current.users() : Arrays.copyOf(users, userCount));
+    }
+
+    int size() {
+        return view.rows();
+    }
+
+    Result scan(Query query) {
+        View v = view;
+        if (v.rows() == 0) {
+            return new Result(List.of(), 0, 0);
+        }
+        int fromDay = query.from() == null ? Integer.MIN_VALUE : (int) query.from().toEpochDay();
+        int toDay = query.to() == null ? Integer.MAX_VALUE : (int) query.to().toEpochDay();
+        long typeMask = isEmpty(query.types()) ? ALL : mask(query.types().stream().mapToInt(Enum::ordinal));
+        long statusMask = isEmpty(query.statuses()) ? ALL : mask(query.statuses().stream().mapToInt(Enum::ordinal));
+        boolean[] gatewayAllowed = isEmpty(query.gateways()) ? null : allowedGateways(v, query.gateways());
+        boolean[] userAllowed = isEmpty(query.userIds()) ? null : allowedUsers(v, query.userIds());
+
+        Dimension[] dims = query.groupBy() == null ? new Dimension[0] : query.groupBy().toArray(new Dimension[0]);
+        long[] radix = new long[dims.length];
+        long groups = 1;
+        int firstMonth = monthIndex(v.minDay());
+        for (int d = 0; d < dims.length; d++) {
+            radix[d] = switch (dims[d]) {
+                case DAY -> v.maxDay() - v.minDay() + 1;
+                case MONTH -> monthIndex(v.maxDay()) - firstMonth + 1;
+                case TYPE -> TYPES.length + 1;
+                case STATUS -> STATUSES.length + 1;
+                case GATEWAY -> Math.max(1, v.gateways().length);
+                case USER -> Math.max(1, v.users().length);
+            };
+            try {
+                groups = Math.multiplyExact(groups, radix[d]);
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Too many group-by combinations");
+            }
+        }
+        int[] monthOfDay = null;
+        if (Arrays.asList(dims).contains(Dimension.MONTH)) {
+            monthOfDay = new int[v.maxDay() - v.minDay() + 1];
+            for (int i = 0; i < monthOfDay.length; i++) {
+                monthOfDay[i] = monthIndex(v.minDay() + i) - firstMonth;
+            }
+        }
+        int[] months = monthOfDay;
+        long keySpace = groups;
+
+        GroupTable total = IntStream.range(0, v.segments().length).parallel()
+                .mapToObj(s -> scanSegment(v.segments()[s], Math.min(SEGMENT_SIZE, v.rows() - s * SEGMENT_SIZE),
+                        fromDay, toDay, typeMask, statusMask, gatewayAllowed, userAllowed, dims, radix, keySpace,
+                        v.minDay(), months))
+                .reduce(GroupTable::merge)
+                .orElseGet(() -> new GroupTable(keySpace));
+        return decode(v, total, dims, radix, firstMonth);
+    }
+
+    private static GroupTable scanSegment(Segment s, int n, int fromDay, int toDay, long typeMask, long statusMask,
+            boolean[] gatewayAllowed, boolean[] userAllowed, Dimension[] dims, long[] radix, long groups,
+            int minDay, int[] monthOfDay) {
+        // Branch-free compaction: every row is written to the selection vector, the cursor only advances on a match
+        int[] sel = new int[n];
+        int count = 0;
+        int[] days = s.days;
+        for (int i = 0; i < n; i++) {
+            sel[count] = i;
+            int day = days[i];
+            count += (day >= fromDay & day <= toDay) ? 1 : 0;
+        }
+        if (typeMask != ALL) {
+            byte[] types = s.types;
+            int k = 0;
+            for (int j = 0; j < count; j++) {
+                int i = sel[j];
+                sel[k] = i;
+                k += (int) ((typeMask >>> types[i]) & 1);
+            }
+            count = k;
+        }
+        if (statusMask != ALL) {
+            byte[] statuses = s.statuses;
+            int k = 0;
+            for (int j = 0; j < count; j++) {
+                int i = sel[j];
+                sel[k] = i;
+                k += (int) ((statusMask >>> statuses[i]) & 1);
+            }
+            count = k;
+        }
+        if (gatewayAllowed != null) {
+            count = filter(sel, count, s.gateways, gatewayAllowed);
+        }
+        if (userAllowed != null) {
+            count = filter(sel, count, s.users, userAllowed);
+        }
+
+        GroupTable table = new GroupTable(groups);
+        long[] amounts = s.amounts;
+        if (dims.length == 0) {
+            long sum = 0;
+            for (int j = 0; j < count; j++) {
+                sum += amounts[sel[j]];
+            }
+            if (count > 0) {
+                table.add(0, sum, count);
+            }
+            return table;
+        }
+        long[] keys = new long[count];
+        for (int d = 0; d < dims.length; d++) {
+            long r = radix[d];
+            switch (dims[d]) {
+                case DAY -> {
+                    for (int j = 0; j < count; j++) {
+                        keys[j] = keys[j] * r + (days[sel[j]] - minDay);
+                    }
+                }
+                case MONTH -> {
+                    for (int j = 0; j < count; j++) {
+                        keys[j] = keys[j] * r + monthOfDay[days[sel[j]] - minDay];
+                    }
+                }
+                case TYPE -> {
+                    byte[] types = s.types;
+                    for (int j = 0; j < count; j++) {
+                        keys[j] = keys[j] * r + types[sel[j]];
+                    }
+                }
+                case STATUS -> {
+                    byte[] statuses = s.statuses;
+                    for (int j = 0; j < count; j++) {
+                        keys[j] = keys[j] * r + statuses[sel[j]];
+                    }
+                }
+                case GATEWAY -> {
+                    int[] codes = s.gateways;
+                    for (int j = 0; j < count; j++) {
+                        keys[j] = keys[j] * r + codes[sel[j]];
+                    }
+                }
+                case USER -> {
+                    int[] codes = s.users;
+                    for (int j = 0; j < count; j++) {
+                        keys[j] = keys[j] * r + codes[sel[j]];
+                    }
+                }
+            }
+        }
+        table.addAll(keys, sel, amounts, count);
+        return table;
+    }
+
+    private static int filter(int[] sel, int count, int[] codes, boolean[] allowed) {
+        int k = 0;
+        for (int j = 0; j < count; j++) {
+            int i = sel[j];
+            sel[k] = i;
+            k += allowed[codes[i]] ? 1 : 0;
+        }
+        return k;
+    }
+
+    private static Result decode(View v, GroupTable table, Dimension[] dims, long[] radix, int firstMonth) {
+        long[] keys = table.sortedKeys();
+        List<Group> groups = new ArrayList<>(keys.length);
+        long matched = 0;
+        for (long key : keys) {
+            Object[] values = new Object[dims.length];
+            long rest = key;
+            for (int d = dims.length - 1; d >= 0; d--) {
+                int code = (int) (rest % radix[d]);
+                rest /= radix[d];
+                values[d] = switch (dims[d]) {
+                    case DAY -> LocalDate.ofEpochDay(v.minDay() + code);
+                    case MONTH -> YearMonth.of((firstMonth + code) / 12, (firstMonth + code) % 12 + 1);
+                    case TYPE -> code == TYPES.length ? null : TYPES[code];
+                    case STATUS -> code == STATUSES.length ? null : STATUSES[code];
+                    case GATEWAY -> v.gateways()[code];
+                    case USER -> v.users()[code];
+                };
+            }
+            long count = table.count(key);
+            groups.add(new Group(values, table.sum(key), count));
+            matched += count;
+        }
+        return new Result(groups, v.rows(), matched);
+    }
+
+    private int gatewayCode(String gateway) {
+        Integer code = gatewayCodes.get(gateway);
+        if (code == null) {
+            code = gateways.size();
+            gatewayCodes.put(gateway, code);
+            gateways.add(gateway);
+        }
+        return code;
+    }
+
+    private int userCode(int userId) {
+        Integer code = userCodes.get(userId);
+        if (code == null) {
+            code = userCount;
+            userCodes.put(userId, code);
+            if (userCount == users.length) {
+                users = Arrays.copyOf(users, userCount * 2);
+            }
+            users[userCount++] = userId;
+        }
+        return code;
+    }
+
+    private static boolean[] allowedGateways(View v, Collection<String> names) {
+        boolean[] allowed = new boolean[v.gateways().length];
+        for (int code = 0; code < allowed.length; code++) {
+            allowed[code] = names.contains(v.gateways()[code]);
+        }
+        return allowed;
+    }
+
+    private static boolean[] allowedUsers(View v, Collection<Integer> userIds) {
+        boolean[] allowed = new boolean[v.users().length];
+        for (int code = 0; code < allowed.length; code++) {
+            allowed[code] = userIds.contains(v.users()[code]);
+        }
+        return allowed;
+    }
+
+    private static long mask(IntStream ordinals) {
+        return ordinals.mapToLong(ordinal -> 1L << ordinal).reduce(0L, (a, b) -> a | b);
+    }
+
+    private static boolean isEmpty(Collection<?> values) {
+        return values == null || values.isEmpty();
+    }
+
+    private static int monthIndex(int epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        return date.getYear() * 12 + date.getMonthValue() - 1;
+    }
+
+    // Sums and counts per packed group key: arrays indexed by the key itself when the key space is small, otherwise
+    // an open-addressing table storing key + 1 so that 0 marks a free slot
+    private static final class GroupTable {
+        private final boolean dense;
+        private long[] keys;
+        private long[] sums;
+        private long[] counts;
+        private int size;
+
+        GroupTable(long groups) {
+            dense = groups <= DENSE_GROUPS;
+            int capacity = dense ? (int) groups : 16;
+            keys = dense ? null : new long[capacity];
+            sums = new long[capacity];
+            counts = new long[capacity];
+        }
+
+        void addAll(long[] groupKeys, int[] sel, long[] amounts, int n) {
+            if (dense) {
+                for (int j = 0; j < n; j++) {
+                    int key = (int) groupKeys[j];
+                    sums[key] += amounts[sel[j]];
+                    counts[key]++;
+                }
+            } else {
+                for (int j = 0; j < n; j++) {
+                    add(groupKeys[j], amounts[sel[j]], 1);
+                }
+            }
+        }
+
+        void add(long key, long amount, long count) {
+            int slot;
+            if (dense) {
+                slot = (int) key;
+            } else {
+                if (size * 2 >= keys.length) {
+                    grow();
+                }
+                slot = find(key);
+                if (keys[slot] == 0) {
+                    keys[slot] = key + 1;
+                    size++;
+                }
+            }
+            sums[slot] += amount;
+            counts[slot] += count;
+        }
+
+        GroupTable merge(GroupTable other) {
+            if (dense) {
+                for (int key = 0; key < sums.length; key++) {
+                    sums[key] += other.sums[key];
+                    counts[key] += other.counts[key];
+                }
+                return this;
+            }
+            GroupTable into = size >= other.size ? this : other;
+            GroupTable from = into == this ? other : this;
+            for (int slot = 0; slot < from.keys.length; slot++) {
+                if (from.keys[slot] != 0) {
+                    into.add(from.keys[slot] - 1, from.sums[slot], from.counts[slot]);
+                }
+            }
+            return into;
+        }
+
+        long sum(long key) {
+            return sums[dense ? (int) key : find(key)];
+        }
+
+        long count(long key) {
+            return counts[dense ? (int) key : find(key)];
+        }
+
+        long[] sortedKeys() {
+            if (dense) {
+                return IntStream.range(0, counts.length).filter(key -> counts[key] != 0).asLongStream().toArray();
+            }
+            long[] sorted = new long[size];
+            int i = 0;
+            for (long stored : keys) {
+                if (stored != 0) {
+                    sorted[i++] = stored - 1;
+                }
+            }
+            Arrays.sort(sorted);
+            return sorted;
+        }
+
+        private int find(long key) {
+            int mask = keys.length - 1;
+            long mixed = (key + 1) * 0x9E3779B97F4A7C15L;
+            int slot = (int) (mixed ^ (mixed >>> 32)) & mask;
+            while (keys[slot] != 0 && keys[slot] != key + 1) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            long[] oldSums = sums;
+            long[] oldCounts = counts;
+            keys = new long[oldKeys.length * 2];
+            sums = new long[keys.length];
+            counts = new long[keys.length];
+            size = 0;
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                if (oldKeys[slot] != 0) {
+                    add(oldKeys[slot] - 1, oldSums[slot], oldCounts[slot]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.gym.management.service;
+
+import com.gym.management.model.LedgerAccount;
+import com.gym.management.model.Role;
+import com.gym.management.model.TransactionType;
+import com.gym.management.model.TreasuryShard;
+import com.gym.management.model.User;
+import com.gym.management.repository.TreasuryShardRepository;
+import com.gym.management.repository.UserRepository;
+import com.gym.management.repository.WalletRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+// Resolves the wallet that collects platform commission once and caches its id. Bookings credit one of
+// N sub-account rows instead of that wallet, so concurrent bookings do not queue on a single row lock;
+// a scheduled roll-up moves the sub-account balances into the wallet.
+@Slf4j
+@Service
+public class TreasuryService {
+
+    private static final Set<Role> ADMIN_ROLES = EnumSet.of(Role.ADMIN, Role.SUPER_ADMIN);
+
+    private final UserRepository userRepository;
+    private final WalletRepository walletRepository;
+    private final TreasuryShardRepository shardRepository;
+    private final LedgerService ledgerService;
+    private final TransactionTemplate transactionTemplate;
+    private final String treasuryEmail;
+    private final int shardCount;
+    private volatile Treasury cached;
+
+    public TreasuryService(UserRepository userRepository, WalletRepository walletRepository,
+            TreasuryShardRepository shardRepository, LedgerService ledgerService,
+            TransactionTemplate transactionTemplate,
+            @Value("${treasury.admin-email:}") String treasuryEmail,
+            @Value("${treasury.shards}") int shardCount) {
+        this.userRepository = userRepository;
+        this.walletRepository = walletRepository;
+        this.shardRepository = shardRepository;
+        this.ledgerService = ledgerService;
+        this.transactionTemplate = transactionTemplate;
+        this.treasuryEmail = treasuryEmail.isBlank() ? null : treasuryEmail.trim();
+        this.shardCount = Math.max(1, shardCount);
+    }
+
+    // Null until an admin exists, in which case bookings carry no commission credit
+    public Integer getTreasuryWalletId() {
+        Treasury treasury = resolve();
+        return treasury == null ? null : treasury.walletId();
+    }
+
+    // Credits commission to the sub-account picked by the key's hash, locking only that row
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void creditCommission(Object shardKey, long amountMinor) {
+        int shard = Math.floorMod(Objects.hashCode(shardKey), shardCount);
+        if (shardRepository.add(shard, amountMinor) == 0) {
+            throw new IllegalStateException("Treasury sub-account " + shard + " does not exist");
+        }
+    }
+
+    // Commission credited to sub-accounts but not yet rolled up, reported as part of the treasury balance
+    public double pendingCommission(Integer walletId) {
+        Treasury treasury = resolve();
+        if (treasury == null || !treasury.walletId().equals(walletId)) {
+            return 0.0;
+        }
+        return LedgerService.fromMinor(shardRepository.sumBalances());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createShards() {
+        for (int shard = 0; shard < shardCount; shard++) {
+            shardRepository.createIfAbsent(shard);
+        }
+    }
+
+    // Takes what each sub-account held when read and subtracts exactly that, so credits landing meanwhile stay
+    // for the next run. Locks the wallet before the sub-accounts, the same order a booking by the owner takes.
+    @Scheduled(fixedDelayString = "${treasury.rollup-interval-ms}")
+    public void rollUp() {
+        Treasury treasury = resolve();
+        if (treasury == null) {
+            return;
+        }
+        Long total = transactionTemplate.execute(status -> {
+            List<TreasuryShard> shards = shardRepository.findByBalanceMinorNot(0L);
+            long sum = shards.stream().mapToLong(TreasuryShard::getBalanceMinor).sum();
+            if (sum == 0) {
+                return 0L;
+            }
+            if (walletRepository.credit(treasury.walletId(), LedgerService.fromMinor(sum)) == 0) {
+                status.setRollbackOnly();
+                return null;
+            }
+            shards.forEach(s -> shardRepository.add(s.getShard(), -s.getBalanceMinor()));
+            ledgerService.post(List.of(
+                    LedgerService.Posting.wallet(treasury.walletId(), sum, TransactionType.COMMISSION),
+                    LedgerService.Posting.system(LedgerAccount.TREASURY_SHARDS, -sum, TransactionType.COMMISSION)));
+            return sum;
+        });
+        if (total == null) {
+            // The cached wallet no longer exists
+            invalidate();
+        } else if (total != 0) {
+            log.debug("Rolled up {} minor units of commission into wallet {}", total, treasury.walletId());
+        }
+    }
+
+    public void onUserChanged(User user) {
+        Treasury treasury = cached;
+        if (ADMIN_ROLES.contains(user.getRole()) || (treasury != null && treasury.userId().equals(user.getId()))) {
+            invalidate();
+        }
+    }
+
+    public void onUserDeleted(Integer userId) {
+        Treasury treasury = cached;
+        if (treasury != null && treasury.userId().equals(userId)) {
+            invalidate();
+        }
+    }
+
+    public void invalidate() {
+        cached = null;
+    }
+
+    private Treasury resolve() {
+        Treasury treasury = cached;
+        if (treasury != null) {
+            return treasury;
+        }
+        synchronized (this) {
+            if (cached == null) {
+                cached = load();
+            }
+            return cached;
+        }
+    }
+
+    private Treasury load() {
+        Optional<User> owner = treasuryEmail != null
+                ? userRepository.findByEmail(treasuryEmail)
+                : userRepository.findFirstByRoleInOrderByIdAsc(ADMIN_ROLES);
+        if (owner.isEmpty()) {
+            if (treasuryEmail != null) {
+                log.warn("Treasury account {} does not exist; commission is not being collected", treasuryEmail);
+            }
+            return null;
+        }
+        User user = owner.get();
+        Optional<Integer> walletId = walletRepository.findIdByUserId(user.getId());
+        if (walletId.isEmpty()) {
+            log.warn("Treasury account {} has no wallet yet; commission is not being collected", user.getEmail());
+            return null;
+        }
+        return new Treasury(user.getId(), walletId.get());
+    }
+
+    private record Treasury(Integer userId, Integer walletId) {
+    }
+}
@@ -2,90 +2,151 @@ package com.gym.management.service;
 
 import com.gym.management.model.*;
 import com.gym.management.repository.TransactionRepository;
-import com.gym.management.repository.UserRepository;
 import com.gym.management.repository.WalletRepository;
+import com.gym.management.repository.projection.TransactionSummary;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class WalletService {
 
     private final WalletRepository walletRepository;
     private final TransactionRepository transactionRepository;
-    private final UserRepository userRepository;
+    private final TreasuryService treasuryService;
+    private final LedgerService ledgerService;
+    private final RevenueService revenueService;
+    private final TrainerAnalyticsService trainerAnalytics;
 
     public Wallet getMyWallet(User user) {
         return walletRepository.findByUser(user)
                 .orElseGet(() -> {
-                    Wallet newWallet = Wallet.builder().user(user).balance(0.0).build();
-                    return walletRepository.save(newWallet);
+                    walletRepository.createIfAbsent(user.getId());
+                    return walletRepository.findByUser(user).orElseThrow();
                 });
     }
 
+    // Every account gets its wallet when it is created, so bookings and top-ups never insert one mid-transaction
+    public void openWallet(User user) {
+        walletRepository.createIfAbsent(user.getId());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void openMissingWallets() {
+        int opened = walletRepository.createMissing();
+        if (opened > 0) {
+            log.info("Opened wallets for {} existing users", opened);
+        }
+    }
+
+    // The wallet id alone; balances change through UPDATEs keyed by it
+    public Integer getWalletId(User user) {
+        return walletRepository.findIdByUserId(user.getId())
+                .orElseGet(() -> {
+                    walletRepository.createIfAbsent(user.getId());
+                    return walletRepository.findIdByUserId(user.getId()).orElseThrow();
+                });
+    }
+
+    // Includes commission still held in treasury sub-accounts when the wallet is the treasury
+    public Double getBalance(Wallet wallet) {
+        return wallet.getBalance() + treasuryService.pendingCommission(wallet.getId());
+    }
+
     @Transactional
     public void addFunds(User user, Double amount, String transactionId, String gateway) {
-        Wallet wallet = getMyWallet(user);
-        wallet.setBalance(wallet.getBalance() + amount);
-        walletRepository.save(wallet);
+        Integer walletId = getWalletId(user);
+        walletRepository.credit(walletId, amount);
+        createTransaction(walletId, amount, TransactionType.DEPOSIT, TransactionStatus.SUCCESS, gateway,
+                transactionId);
+
+        long amountMinor = LedgerService.toMinor(amount);
+        ledgerService.post(List.of(
+                LedgerService.Posting.wallet(walletId, amountMinor, TransactionType.DEPOSIT),
+                LedgerService.Posting.system(LedgerAccount.PAYMENT_GATEWAY, -amountMinor, TransactionType.DEPOSIT)));
+        creditBeforeCommit(() -> revenueService.record(TransactionType.DEPOSIT, null, amountMinor, 0));
+    }
 
-        Transaction transaction = Transaction.builder()
-                .wallet(wallet)
-                .amount(amount)
-                .type(TransactionType.DEPOSIT)
-                .status(TransactionStatus.SUCCESS)
-                .gateway(gateway)
-                .transactionId(transactionId)
-                .build();
-        transactionRepository.save(transaction);
+    // 15% for Gym HQ, rounded half up in minor units
+    public static long commissionMinor(long amountMinor) {
+        return (amountMinor * 15 + 50) / 100;
     }
 
     @Transactional
-    public void transferBookingFunds(User member, User trainer, Double amount) {
-        Wallet memberWallet = getMyWallet(member);
-        if (memberWallet.getBalance() < amount) {
+    public void transferBookingFunds(User member, GymService service, Double amount, int sessions) {
+        Integer memberWalletId = getWalletId(member);
+        Integer trainerWalletId = getWalletId(service.getTrainer());
+        Integer adminWalletId = treasuryService.getTreasuryWalletId();
+
+        // 1. Debit Member, guarded in the UPDATE itself so concurrent bookings can neither overdraw nor lose a write
+        if (walletRepository.debit(memberWalletId, amount) == 0) {
             throw new RuntimeException("Insufficient funds in member wallet");
         }
-
-        // 1. Debit Member
-        memberWallet.setBalance(memberWallet.getBalance() - amount);
-        walletRepository.save(memberWallet);
-        createTransaction(memberWallet, amount, TransactionType.BOOKING, TransactionStatus.SUCCESS, "WALLET",
+        createTransaction(memberWalletId, amount, TransactionType.BOOKING, TransactionStatus.SUCCESS, "WALLET",
                 "BK-" + System.currentTimeMillis());
 
-        // 2. Calculate Commission (15% for Gym HQ)
-        Double commission = amount * 0.15;
-        Double trainerShare = amount - commission;
+        // 2. Calculate Commission (15% for Gym HQ), in minor units so the journal balances exactly
+        long amountMinor = LedgerService.toMinor(amount);
+        long commissionMinor = commissionMinor(amountMinor);
+        long trainerShareMinor = amountMinor - commissionMinor;
+        Double commission = LedgerService.fromMinor(commissionMinor);
+        Double trainerShare = LedgerService.fromMinor(trainerShareMinor);
 
         // 3. Credit Trainer
-        Wallet trainerWallet = getMyWallet(trainer);
-        trainerWallet.setBalance(trainerWallet.getBalance() + trainerShare);
-        walletRepository.save(trainerWallet);
-        createTransaction(trainerWallet, trainerShare, TransactionType.REVENUE, TransactionStatus.SUCCESS, "WALLET",
+        creditBeforeCommit(() -> walletRepository.credit(trainerWalletId, trainerShare));
+        createTransaction(trainerWalletId, trainerShare, TransactionType.REVENUE, TransactionStatus.SUCCESS, "WALLET",
                 "REV-" + System.currentTimeMillis());
 
-        // 4. Credit Admin (Gym HQ)
-        User admin = userRepository.findAll().stream()
-                .filter(u -> u.getRole() == Role.ADMIN || u.getRole() == Role.SUPER_ADMIN)
-                .findFirst()
-                .orElse(null);
-
-        if (admin != null) {
-            Wallet adminWallet = getMyWallet(admin);
-            adminWallet.setBalance(adminWallet.getBalance() + commission);
-            walletRepository.save(adminWallet);
-            createTransaction(adminWallet, commission, TransactionType.COMMISSION, TransactionStatus.SUCCESS, "WALLET",
-                    "COM-" + System.currentTimeMillis());
+        // 4. Credit Admin (Gym HQ) through a treasury sub-account; the member's wallet lock already serialises
+        // that member's bookings, so their id spreads concurrent bookings across sub-accounts
+        if (adminWalletId != null) {
+            creditBeforeCommit(() -> treasuryService.creditCommission(member.getId(), commissionMinor));
+            createTransaction(adminWalletId, commission, TransactionType.COMMISSION, TransactionStatus.SUCCESS,
+                    "WALLET", "COM-" + System.currentTimeMillis());
         }
+
+        // 5. Journal the movement
+        ledgerService.post(List.of(
+                LedgerService.Posting.wallet(memberWalletId, -amountMinor, TransactionType.BOOKING),
+                LedgerService.Posting.wallet(trainerWalletId, trainerShareMinor, TransactionType.REVENUE),
+                LedgerService.Posting.system(adminWalletId != null
+                        ? LedgerAccount.TREASURY_SHARDS
+                        : LedgerAccount.UNALLOCATED_COMMISSION, commissionMinor, TransactionType.COMMISSION)));
+
+        // 6. Revenue rollups and trainer earnings; commission counts even while no treasury wallet exists to receive it
+        creditBeforeCommit(() -> {
+            revenueService.record(TransactionType.BOOKING, service, amountMinor, sessions);
+            revenueService.record(TransactionType.REVENUE, service, trainerShareMinor, 0);
+            revenueService.record(TransactionType.COMMISSION, service, commissionMinor, 0);
+            trainerAnalytics.recordEarnings(service.getTrainer().getId(), trainerShareMinor);
+        });
+    }
+
+    // Trainer, treasury and revenue rollup rows are shared by many bookings, so they are updated last, just
+    // before commit, and stay locked only for the commit itself
+    private void creditBeforeCommit(Runnable credit) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                credit.run();
+            }
+        });
     }
 
-    private void createTransaction(Wallet wallet, Double amount, TransactionType type, TransactionStatus status,
+    private void createTransaction(Integer walletId, Double amount, TransactionType type, TransactionStatus status,
             String gateway, String txId) {
         Transaction tx = Transaction.builder()
-                .wallet(wallet)
+                .wallet(walletRepository.getReferenceById(walletId))
                 .amount(amount)
                 .type(type)
                 .status(status)
@@ -95,12 +156,11 @@ public class WalletService {
         transactionRepository.save(tx);
     }
 
-    public List<Transaction> getTransactions(User user) {
-        Wallet wallet = getMyWallet(user);
-        return transactionRepository.findByWalletIdOrderByCreatedAtDesc(wallet.getId());
+    public List<TransactionSummary> getTransactions(User user, Integer beforeId, int limit) {
+        return transactionRepository.findSummariesByWalletBefore(getWalletId(user), beforeId, PageRequest.of(0, limit));
     }
 
-    public List<Transaction> getAllTransactions() {
-        return transactionRepository.findAll();
+    public List<TransactionSummary> getAllTransactions(Integer beforeId, int limit) {
+        return transactionRepository.findSummariesBefore(beforeId, PageRequest.of(0, limit));
     }
 }
@@ -0,0 +1,66 @@
+package com.gym.management;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+// Streaming queries ask MySQL Connector/J for row-by-row results with a fetch size of Integer.MIN_VALUE, which
+// H2 rejects. The test DataSource drops negative fetch sizes so those queries run unchanged against H2. It also
+// reports every execute call to JdbcRoundTrips.
+@TestConfiguration(proxyBeanMethods = false)
+public class H2TestConfig {
+
+    @Bean
+    static BeanPostProcessor streamingFetchSizeFilter() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource ? wrap(dataSource, DataSource.class, Closeable.class)
+                        : bean;
+            }
+        };
+    }
+
+    private static Object wrap(Object target, Class<?>... interfaces) {
+        return Proxy.newProxyInstance(H2TestConfig.class.getClassLoader(), interfaces, (proxy, method, args) -> {
+            if (method.getName().equals("setFetchSize") && (int) args[0] < 0) {
+                return null;
+            }
+            if (method.getName().startsWith("execute")) {
+                JdbcRoundTrips.record();
+            }
+            Object result = invoke(target, method, args);
+            if (result instanceof Connection connection) {
+                return wrap(connection, Connection.class);
+            }
+            if (result instanceof CallableStatement statement) {
+                return wrap(statement, CallableStatement.class);
+            }
+            if (result instanceof PreparedStatement statement) {
+                return wrap(statement, PreparedStatement.class);
+            }
+            if (result instanceof Statement statement) {
+                return wrap(statement, Statement.class);
+            }
+            return result;
+        });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
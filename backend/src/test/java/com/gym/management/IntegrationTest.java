@@ -0,0 +1,113 @@
+package com.gym.management;
+
+import com.gym.management.dto.RegisterRequest;
+import com.gym.management.model.GymService;
+import com.gym.management.model.Role;
+import com.gym.management.model.ServiceStatus;
+import com.gym.management.model.ServiceType;
+import com.gym.management.model.User;
+import com.gym.management.repository.GymServiceRepository;
+import com.gym.management.repository.UserRepository;
+import com.gym.management.service.AuthenticationService;
+import com.gym.management.service.JwtService;
+import com.gym.management.service.WalletService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+// Every integration test shares this configuration, so the whole suite runs against one application context and
+// one H2 database. Tests create their own users and services and only assert on those.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(H2TestConfig.class)
+public abstract class IntegrationTest {
+
+    private static final String ADMIN_EMAIL = "admin@test.local";
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected AuthenticationService authenticationService;
+
+    @Autowired
+    protected JwtService jwtService;
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected GymServiceRepository gymServiceRepository;
+
+    @Autowired
+    protected WalletService walletService;
+
+    protected record Account(User user, String token) {
+
+        public String bearer() {
+            return "Bearer " + token;
+        }
+    }
+
+    protected Account register(Role role) {
+        String email = role.name().toLowerCase() + "-" + UUID.randomUUID() + "@test.local";
+        return register(role, email);
+    }
+
+    // A user without a token, for tests that call services directly; skips register()'s password hashing
+    protected User newUser(Role role) {
+        User user = userRepository.save(User.builder()
+                .firstname(role.name().charAt(0) + role.name().substring(1).toLowerCase())
+                .lastname("Test")
+                .email(role.name().toLowerCase() + "-" + UUID.randomUUID() + "@test.local")
+                .password("unused")
+                .role(role)
+                .enabled(true)
+                .build());
+        walletService.openWallet(user);
+        return user;
+    }
+
+    // One admin shared by every test; being the only admin, its wallet is the commission treasury
+    protected Account admin() {
+        return userRepository.findByEmail(ADMIN_EMAIL)
+                .map(user -> new Account(user, jwtService.generateToken(user)))
+                .orElseGet(() -> register(Role.ADMIN, ADMIN_EMAIL));
+    }
+
+    protected GymService approvedService(User trainer, ServiceType type, double price, Integer capacity) {
+        return gymServiceRepository.save(GymService.builder()
+                .name(type + " with " + trainer.getFirstname())
+                .address("1 Test Street")
+                .description("Test service")
+                .price(price)
+                .type(type)
+                .status(ServiceStatus.APPROVED)
+                .capacity(capacity)
+                .latitude(12.97)
+                .longitude(77.59)
+                .trainer(trainer)
+                .build());
+    }
+
+    protected void topUp(User user, double amount) {
+        walletService.addFunds(user, amount, "TOPUP-" + UUID.randomUUID(), "STRIPE");
+    }
+
+    private Account register(Role role, String email) {
+        String token = authenticationService.register(RegisterRequest.builder()
+                .firstname(role.name().charAt(0) + role.name().substring(1).toLowerCase())
+                .lastname("Test")
+                .email(email)
+                .password("password")
+                .role(role)
+                .build()).getToken();
+        return new Account(userRepository.findByEmail(email).orElseThrow(), token);
+    }
+}
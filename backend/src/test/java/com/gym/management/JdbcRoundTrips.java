@@ -0,0 +1,29 @@
+package com.gym.management;
+
+// Counts statement executions on the application DataSource for the current thread, a JDBC batch counting once,
+// so a test can measure the round trips a request makes. Ids reserved over the allocator's own pool are not
+// included.
+public final class JdbcRoundTrips {
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    private JdbcRoundTrips() {
+    }
+
+    public static void start() {
+        COUNT.set(new int[1]);
+    }
+
+    public static int stop() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count == null ? 0 : count[0];
+    }
+
+    static void record() {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.gym.management.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gym.management.IntegrationTest;
+import com.gym.management.JdbcRoundTrips;
+import com.gym.management.dto.BookingRequest;
+import com.gym.management.model.GymService;
+import com.gym.management.model.Role;
+import com.gym.management.model.ServiceType;
+import com.gym.management.model.User;
+import com.gym.management.repository.NotificationRepository;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+import org.hibernate.service.ServiceRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Pooled ids let Hibernate batch inserts, so a request's JDBC round trips stop growing with the rows it writes.
+@Slf4j
+class PooledIdAllocatorTest extends IntegrationTest {
+
+    private static final int RECIPIENTS = 200;
+    private static final int BATCH_SIZE = 50;
+
+    @Autowired
+    private PooledIdAllocator allocator;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void persistenceUnitUsesTheAllocatorOfItsOwnContext() {
+        assertThat(entityManagerFactory.getProperties().get(PooledIdAllocator.SETTING)).isSameAs(allocator);
+    }
+
+    @Test
+    void generatorFailsFastWithoutAnAllocator() {
+        for (Object registered : new Object[] { null, "not an allocator" }) {
+            Map<String, Object> settings = new HashMap<>();
+            settings.put(PooledIdAllocator.SETTING, registered);
+            assertThatThrownBy(() -> new PooledIdGenerator(pooledId("booking"), null, creationContext(settings)))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("No PooledIdAllocator");
+        }
+    }
+
+    @Test
+    void broadcastInsertsGoOutInBatches() throws Exception {
+        for (int i = 0; i < RECIPIENTS; i++) {
+            newUser(Role.MEMBER);
+        }
+        long recipients = userRepository.count();
+        String title = "Round trips " + UUID.randomUUID();
+
+        int roundTrips = roundTrips(post("/api/v1/notifications/broadcast")
+                .header(HttpHeaders.AUTHORIZATION, admin().bearer())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of(
+                        "targetAudience", "ALL", "title", title, "message", "hello"))));
+        log.info("Broadcast to {} users: {} round trips on the request connection", recipients, roundTrips);
+
+        assertThat(notificationRepository.findAll().stream()
+                .filter(n -> n.getMessage().startsWith(title))).hasSize((int) recipients);
+        // The user lookup, the recipient query and one execution per batch, against one insert per recipient
+        assertThat(roundTrips).isLessThanOrEqualTo((int) ((recipients + BATCH_SIZE - 1) / BATCH_SIZE) + 4);
+    }
+
+    @Test
+    void bookingRoundTripsStayWithinBudget() throws Exception {
+        admin();
+        User member = newUser(Role.MEMBER);
+        topUp(member, 20);
+        GymService service = approvedService(newUser(Role.TRAINER), ServiceType.YOGA, 10, null);
+        LocalDateTime session = LocalDateTime.now().plusDays(3).truncatedTo(ChronoUnit.HOURS);
+
+        int roundTrips = roundTrips(post("/api/v1/bookings")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtService.generateToken(member))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new BookingRequest(service.getId(), session))));
+        log.info("POST /bookings: {} round trips on the request connection", roundTrips);
+
+        // Wallet, ledger, outbox and aggregate writes included, and the shared lock that holds off an analytics
+        // rebuild; the booking's own row no longer asks for its key
+        assertThat(roundTrips).isLessThanOrEqualTo(26);
+    }
+
+    private int roundTrips(MockHttpServletRequestBuilder request) throws Exception {
+        int roundTrips;
+        JdbcRoundTrips.start();
+        try {
+            mockMvc.perform(request).andExpect(status().isOk());
+        } finally {
+            roundTrips = JdbcRoundTrips.stop();
+        }
+        return roundTrips;
+    }
+
+    private static CustomIdGeneratorCreationContext creationContext(Map<String, Object> settings) {
+        ConfigurationService configuration = mock(ConfigurationService.class);
+        when(configuration.getSettings()).thenReturn(settings);
+        ServiceRegistry registry = mock(ServiceRegistry.class);
+        when(registry.requireService(ConfigurationService.class)).thenReturn(configuration);
+        CustomIdGeneratorCreationContext context = mock(CustomIdGeneratorCreationContext.class);
+        when(context.getServiceRegistry()).thenReturn(registry);
+        return context;
+    }
+
+    private static PooledId pooledId(String table) {
+        PooledId pooledId = mock(PooledId.class);
+        when(pooledId.value()).thenReturn(table);
+        return pooledId;
+    }
+}
@@ -0,0 +1,118 @@
+package com.gym.management.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gym.management.IntegrationTest;
+import com.gym.management.config.QueryCountInspector;
+import com.gym.management.dto.BatchBookingRequest;
+import com.gym.management.dto.BookingRequest;
+import com.gym.management.model.GymService;
+import com.gym.management.model.Role;
+import com.gym.management.model.ServiceType;
+import com.gym.management.model.User;
+import com.gym.management.repository.BookingRepository;
+import com.gym.management.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Books the same series of sessions once as N single requests and once as one batch request, counting the SQL
+// statements and wallet transaction rows each way. The batch debits once and claims seats in one flush, so its
+// cost must stay far below the N-call baseline.
+@Slf4j
+class BatchBookingBenchmarkTest extends IntegrationTest {
+
+    private static final int SESSIONS = 16;
+    private static final double PRICE = 10;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Test
+    void batchCostsAFractionOfSingleCalls() throws Exception {
+        admin();
+        LocalDateTime first = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+        List<LocalDateTime> sessions = IntStream.range(0, SESSIONS).mapToObj(first::plusDays).toList();
+
+        User singleMember = member();
+        GymService singleService = approvedService(newUser(Role.TRAINER), ServiceType.CROSSFIT, PRICE, 10);
+        List<MockHttpServletRequestBuilder> singles = new ArrayList<>();
+        for (LocalDateTime session : sessions) {
+            singles.add(booking(singleMember, "/api/v1/bookings", new BookingRequest(singleService.getId(), session)));
+        }
+        Run single = measure(singles);
+
+        User batchMember = member();
+        GymService batchService = approvedService(newUser(Role.TRAINER), ServiceType.CROSSFIT, PRICE, 10);
+        Run batch = measure(List.of(booking(batchMember, "/api/v1/bookings/batch", BatchBookingRequest.builder()
+                .serviceId(batchService.getId())
+                .bookingDates(sessions)
+                .build())));
+
+        int singleRows = transactionRows(singleMember);
+        int batchRows = transactionRows(batchMember);
+        log.info("{} sessions: single calls took {} ms, {} statements, {} wallet rows; "
+                + "one batch call took {} ms, {} statements, {} wallet rows", SESSIONS, single.millis(),
+                single.statements(), singleRows, batch.millis(), batch.statements(), batchRows);
+
+        assertThat(walletService.getMyWallet(singleMember).getBalance()).isZero();
+        assertThat(walletService.getMyWallet(batchMember).getBalance()).isZero();
+        assertThat(bookingRepository.findByUserId(batchMember.getId())).hasSize(SESSIONS);
+        assertThat(singleRows).isEqualTo(SESSIONS);
+        assertThat(batchRows).isEqualTo(1);
+        assertThat(batch.statements()).isLessThan(single.statements() / 3);
+    }
+
+    private record Run(int statements, long millis) {
+    }
+
+    private Run measure(List<MockHttpServletRequestBuilder> requests) throws Exception {
+        long start = System.nanoTime();
+        int statements;
+        QueryCountInspector.start();
+        try {
+            for (MockHttpServletRequestBuilder request : requests) {
+                mockMvc.perform(request).andExpect(status().isOk());
+            }
+        } finally {
+            statements = QueryCountInspector.stop();
+        }
+        return new Run(statements, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private MockHttpServletRequestBuilder booking(User member, String path, Object body) throws Exception {
+        return post(path)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtService.generateToken(member))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(body));
+    }
+
+    private User member() {
+        User member = newUser(Role.MEMBER);
+        topUp(member, PRICE * SESSIONS);
+        return member;
+    }
+
+    // Rows on the member's own wallet, leaving out the top-up
+    private int transactionRows(User member) {
+        return transactionRepository.findByWalletId(walletService.getWalletId(member)).size() - 1;
+    }
+}
@@ -0,0 +1,48 @@
+package com.gym.management.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gym.management.IntegrationTest;
+import com.gym.management.dto.GymServiceRequest;
+import com.gym.management.model.Role;
+import com.gym.management.model.ServiceType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class GymServiceControllerTest extends IntegrationTest {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @ParameterizedTest
+    @ValueSource(ints = { 0, -5 })
+    void rejectsSessionsWithoutSeats(int capacity) throws Exception {
+        create(capacity).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void createsCapacityLimitedService() throws Exception {
+        create(12).andExpect(status().isOk()).andExpect(jsonPath("$.capacity").value(12));
+    }
+
+    private ResultActions create(int capacity) throws Exception {
+        GymServiceRequest request = GymServiceRequest.builder()
+                .name("Spin class")
+                .price(15.0)
+                .type(ServiceType.GROUP_CLASSES)
+                .capacity(capacity)
+                .build();
+        return mockMvc.perform(post("/api/v1/services")
+                .header(HttpHeaders.AUTHORIZATION, register(Role.TRAINER).bearer())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)));
+    }
+}
@@ -0,0 +1,167 @@
+package com.gym.management.controller;
+
+import com.gym.management.IntegrationTest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gym.management.config.QueryCountInspector;
+import com.gym.management.dto.BookingRequest;
+import com.gym.management.model.Favorite;
+import com.gym.management.model.GymService;
+import com.gym.management.model.Review;
+import com.gym.management.model.Role;
+import com.gym.management.model.ServiceStatus;
+import com.gym.management.model.ServiceType;
+import com.gym.management.repository.FavoriteRepository;
+import com.gym.management.service.BookingService;
+import com.gym.management.service.NotificationService;
+import com.gym.management.service.RatingService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Every list endpoint runs a fixed number of SQL statements however many rows it returns. The data gives each list
+// several rows owned by different users and services, so a per-row fetch (N+1) pushes a count over its budget.
+// Budgets include the JWT filter's user lookup.
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ListQueryCountTest extends IntegrationTest {
+
+    private static final int ROWS = 3;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private RatingService ratingService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Account admin;
+    private Account member;
+    private Account trainer;
+    private GymService reviewed;
+
+    @BeforeAll
+    void seed() {
+        admin = admin();
+        List<Account> trainers = new ArrayList<>();
+        List<GymService> services = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            Account account = register(Role.TRAINER);
+            trainers.add(account);
+            services.add(approvedService(account.user(), ServiceType.YOGA, 10, null));
+            approvedService(account.user(), ServiceType.CARDIO, 12, null);
+            gymServiceRepository.save(GymService.builder()
+                    .name("Pending program")
+                    .price(5.0)
+                    .type(ServiceType.DIET_PLAN)
+                    .status(ServiceStatus.PENDING)
+                    .trainer(account.user())
+                    .build());
+        }
+        trainer = trainers.get(0);
+        reviewed = services.get(0);
+
+        LocalDateTime session = LocalDateTime.now().plusDays(30).truncatedTo(ChronoUnit.HOURS);
+        List<Account> members = List.of(register(Role.MEMBER), register(Role.MEMBER), register(Role.MEMBER));
+        member = members.get(0);
+        for (Account account : members) {
+            topUp(account.user(), 1000);
+            for (GymService service : services) {
+                bookingService.createBooking(account.user(), service.getId(), session);
+                session = session.plusHours(2);
+                favoriteRepository.save(Favorite.builder().user(account.user()).service(service).build());
+                notificationService.createNotification(account.user(), "Booked " + service.getName());
+            }
+            ratingService.saveReview(Review.builder()
+                    .user(account.user())
+                    .service(reviewed)
+                    .rating(4)
+                    .comment("Good session")
+                    .build());
+        }
+    }
+
+    Stream<Arguments> listEndpoints() {
+        return Stream.of(
+                Arguments.of(get("/api/v1/users"), admin, 2),
+                Arguments.of(get("/api/v1/admin/transactions"), admin, 2),
+                Arguments.of(get("/api/v1/wallet/transactions"), member, 3),
+                Arguments.of(get("/api/v1/bookings/my"), member, 2),
+                Arguments.of(get("/api/v1/bookings/trainer"), trainer, 2),
+                Arguments.of(get("/api/v1/notifications"), member, 2),
+                Arguments.of(get("/api/v1/favorites"), member, 2),
+                Arguments.of(get("/api/v1/services/my"), trainer, 3),
+                Arguments.of(get("/api/v1/services/pending"), admin, 3),
+                Arguments.of(get("/api/v1/services/history"), admin, 3),
+                Arguments.of(get("/api/v1/reviews/service/" + reviewed.getId()), null, 1));
+    }
+
+    @ParameterizedTest
+    @MethodSource("listEndpoints")
+    void listEndpointStaysWithinItsQueryBudget(MockHttpServletRequestBuilder request, Account account, int budget)
+            throws Exception {
+        if (account != null) {
+            request.header(HttpHeaders.AUTHORIZATION, account.bearer());
+        }
+        int statements;
+        QueryCountInspector.start();
+        try {
+            mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(greaterThanOrEqualTo(ROWS))));
+        } finally {
+            statements = QueryCountInspector.stop();
+        }
+        assertThat(statements).as("SQL statements").isEqualTo(budget);
+    }
+
+    // The budget is for list reads: a booking's writes go well past it without being reported as an N+1
+    @Test
+    @ExtendWith(OutputCaptureExtension.class)
+    void bookingIsNotHeldToTheListBudget(CapturedOutput output) throws Exception {
+        int statements;
+        QueryCountInspector.start();
+        try {
+            mockMvc.perform(post("/api/v1/bookings")
+                            .header(HttpHeaders.AUTHORIZATION, member.bearer())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new BookingRequest(reviewed.getId(),
+                                    LocalDateTime.now().plusDays(60).truncatedTo(ChronoUnit.HOURS)))))
+                    .andExpect(status().isOk());
+        } finally {
+            statements = QueryCountInspector.stop();
+        }
+        assertThat(statements).as("SQL statements").isGreaterThan(10);
+        assertThat(output).doesNotContain("SQL statements (budget");
+    }
+}
@@ -0,0 +1,119 @@
+package com.gym.management.service;
+
+import com.gym.management.IntegrationTest;
+import com.gym.management.dto.TrainerAnalyticsResponse;
+import com.gym.management.model.GymService;
+import com.gym.management.model.Review;
+import com.gym.management.model.Role;
+import com.gym.management.model.ServiceRating;
+import com.gym.management.model.ServiceType;
+import com.gym.management.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// A rebuild recomputes aggregates that bookings and reviews keep updating. It waits for an update already made to
+// commit, so what it writes counts that update exactly once.
+class AggregateRebuildTest extends IntegrationTest {
+
+    private static final int LATCH_SECONDS = 30;
+
+    @Autowired
+    private TrainerAnalyticsService trainerAnalytics;
+
+    @Autowired
+    private RatingService ratingService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void trainerAnalyticsRebuildWaitsForAnOpenBooking() throws Exception {
+        admin();
+        User trainer = newUser(Role.TRAINER);
+        GymService service = approvedService(trainer, ServiceType.YOGA, 10, null);
+        User member = newUser(Role.MEMBER);
+        topUp(member, 10);
+        LocalDateTime session = LocalDateTime.now().plusDays(4).truncatedTo(ChronoUnit.HOURS);
+
+        CountDownLatch booked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> booking = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(
+                status -> {
+                    bookingService.createBooking(member, service.getId(), session);
+                    booked.countDown();
+                    await(release);
+                }));
+        assertThat(booked.await(LATCH_SECONDS, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Integer> rebuild = CompletableFuture.supplyAsync(trainerAnalytics::rebuild);
+        try {
+            assertThatThrownBy(() -> rebuild.get(1, TimeUnit.SECONDS)).isInstanceOf(TimeoutException.class);
+        } finally {
+            release.countDown();
+        }
+        booking.get(LATCH_SECONDS, TimeUnit.SECONDS);
+        rebuild.get(LATCH_SECONDS, TimeUnit.SECONDS);
+
+        TrainerAnalyticsResponse analytics = trainerAnalytics.getAnalytics(trainer.getId());
+        assertThat(analytics.getTotalBookings()).isEqualTo(1);
+        assertThat(analytics.getDistinctClients()).isEqualTo(1);
+        assertThat(analytics.getTotalEarnings()).isEqualTo(8.5);
+    }
+
+    @Test
+    void serviceRatingRebuildWaitsForAnOpenReview() throws Exception {
+        GymService service = approvedService(newUser(Role.TRAINER), ServiceType.CROSSFIT, 10, null);
+        User member = newUser(Role.MEMBER);
+
+        CountDownLatch reviewed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> review = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(
+                status -> {
+                    ratingService.saveReview(Review.builder()
+                            .user(member)
+                            .service(service)
+                            .rating(5)
+                            .comment("Tough but worth it")
+                            .build());
+                    reviewed.countDown();
+                    await(release);
+                }));
+        assertThat(reviewed.await(LATCH_SECONDS, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Void> rebuild = CompletableFuture.runAsync(ratingService::rebuild);
+        try {
+            assertThatThrownBy(() -> rebuild.get(1, TimeUnit.SECONDS)).isInstanceOf(TimeoutException.class);
+        } finally {
+            release.countDown();
+        }
+        review.get(LATCH_SECONDS, TimeUnit.SECONDS);
+        rebuild.get(LATCH_SECONDS, TimeUnit.SECONDS);
+
+        ServiceRating rating = ratingService.getRating(service.getId());
+        assertThat(rating.getReviewCount()).isEqualTo(1);
+        assertThat(rating.getFiveStar()).isEqualTo(1);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(LATCH_SECONDS, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.gym.management.service;
+
+import com.gym.management.IntegrationTest;
+import com.gym.management.config.QueryCountInspector;
+import com.gym.management.model.GymService;
+import com.gym.management.model.RevenueDaily;
+import com.gym.management.model.Role;
+import com.gym.management.model.ServiceType;
+import com.gym.management.model.TransactionType;
+import com.gym.management.model.User;
+import com.gym.management.repository.RevenueDailyRepository;
+import com.gym.management.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+// The dashboard's platform profit is the sum of COMMISSION transactions, as it was before it moved into the
+// database, whatever the revenue rollups hold for backfilled days or commission no treasury wallet received.
+class AnalyticsServiceTest extends IntegrationTest {
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private RevenueDailyRepository rollupRepository;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Test
+    void totalRevenueSumsCommissionTransactionsInOneStatement() {
+        admin();
+        User trainer = newUser(Role.TRAINER);
+        GymService service = approvedService(trainer, ServiceType.YOGA, 10, null);
+        User member = newUser(Role.MEMBER);
+        topUp(member, 10);
+        bookingService.createBooking(member, service.getId(),
+                LocalDateTime.now().plusDays(2).truncatedTo(ChronoUnit.HOURS));
+        // A rollup row with no COMMISSION transaction behind it, as backfill or an absent treasury leaves
+        RevenueDaily rollupOnly = rollupRepository.save(RevenueDaily.builder()
+                .day(LocalDate.of(2001, 1, 1))
+                .type(TransactionType.COMMISSION)
+                .serviceType(ServiceType.YOGA.name())
+                .trainerId(trainer.getId())
+                .amountMinor(12_345)
+                .transactions(1)
+                .build());
+
+        Map<String, Object> stats;
+        int statements;
+        try {
+            AnalyticsService analytics = new AnalyticsService(transactionRepository, 0);
+            QueryCountInspector.start();
+            try {
+                stats = analytics.getStats();
+            } finally {
+                statements = QueryCountInspector.stop();
+            }
+        } finally {
+            rollupRepository.delete(rollupOnly);
+        }
+
+        double commission = transactionRepository.findAll().stream()
+                .filter(t -> t.getType() == TransactionType.COMMISSION)
+                .mapToDouble(t -> t.getAmount())
+                .sum();
+        assertThat(commission).isPositive();
+        assertThat((Double) stats.get("totalRevenue")).isCloseTo(commission, within(0.001));
+        assertThat(stats.get("totalUsers")).isEqualTo(userRepository.count());
+        assertThat(statements).as("SQL statements").isEqualTo(1);
+    }
+}
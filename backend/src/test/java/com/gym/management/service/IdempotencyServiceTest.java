@@ -0,0 +1,186 @@
+package com.gym.management.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gym.management.IntegrationTest;
+import com.gym.management.dto.BatchBookingRequest;
+import com.gym.management.model.GymService;
+import com.gym.management.model.IdempotencyRecord;
+import com.gym.management.model.Role;
+import com.gym.management.model.ServiceType;
+import com.gym.management.model.User;
+import com.gym.management.repository.BookingRepository;
+import com.gym.management.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The stored response commits with the request's own writes, so a key is either completed together with its
+// top-up or left pending with nothing committed, and a pending key can be resolved once its owner is gone.
+class IdempotencyServiceTest extends IntegrationTest {
+
+    private static final String SCOPE = "add-funds";
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private IdempotencyRecordRepository recordRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void crashedRequestCommitsNothingAndIsRetriedOnceAbandoned() {
+        User member = newUser(Role.MEMBER);
+        String key = UUID.randomUUID().toString();
+
+        // An Error skips every cleanup path, as a crash between the pending insert and the commit would
+        assertThatThrownBy(() -> topUp(member, key, () -> {
+            throw new AssertionError("crash");
+        })).isInstanceOf(AssertionError.class);
+        assertThat(walletService.getMyWallet(member).getBalance()).isZero();
+        assertConflict(() -> topUp(member, key, null));
+
+        age(member, key, null);
+        assertThat(topUp(member, key, null).getStatusCode()).isEqualTo(HttpStatus.OK);
+        ResponseEntity<Void> replay = topUp(member, key, null);
+        assertThat(replay.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(walletService.getMyWallet(member).getBalance()).isEqualTo(25.0);
+    }
+
+    @Test
+    void attemptWhoseKeyWasTakenOverRollsBack() {
+        User member = newUser(Role.MEMBER);
+        String key = UUID.randomUUID().toString();
+        String id = recordId(member, SCOPE, key);
+
+        // Another instance claims the key while this attempt is still running, as if it had been given up for dead
+        assertConflict(() -> topUp(member, key, () -> CompletableFuture.supplyAsync(() -> {
+            IdempotencyRecord record = recordRepository.findById(id).orElseThrow();
+            LocalDateTime now = LocalDateTime.now();
+            return recordRepository.takeOver(id, record.getAttempt(), "other", record.getRequestHash(), now,
+                    now.plusHours(1));
+        }).join()));
+
+        assertThat(walletService.getMyWallet(member).getBalance()).isZero();
+        IdempotencyRecord record = recordRepository.findById(id).orElseThrow();
+        assertThat(record.getAttempt()).isEqualTo("other");
+        assertThat(record.getStatus()).isNull();
+    }
+
+    @Test
+    void pendingRecordWithoutAttemptStaysBlocked() {
+        User member = newUser(Role.MEMBER);
+        String key = UUID.randomUUID().toString();
+        assertThatThrownBy(() -> topUp(member, key, () -> {
+            throw new AssertionError("crash");
+        })).isInstanceOf(AssertionError.class);
+
+        // Written before completion was atomic, so the request may have committed
+        age(member, key, record -> record.setAttempt(null));
+        assertConflict(() -> topUp(member, key, null));
+        assertThat(walletService.getMyWallet(member).getBalance()).isZero();
+    }
+
+    @Test
+    void keyedWeeklyBatchStoresItsWholeResponse() throws Exception {
+        admin();
+        GymService service = approvedService(newUser(Role.TRAINER), ServiceType.YOGA, 10, null);
+        User member = newUser(Role.MEMBER);
+        topUp(member, 300);
+        // 30 weeks of one session, well past what a few kilobytes of response could hold
+        String request = objectMapper.writeValueAsString(BatchBookingRequest.builder()
+                .serviceId(service.getId())
+                .firstSession(LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS))
+                .daysOfWeek(List.of(DayOfWeek.MONDAY))
+                .weeks(30)
+                .build());
+        String key = UUID.randomUUID().toString();
+
+        MvcResult first = batch(member, key, request);
+        MvcResult replay = batch(member, key, request);
+
+        String body = first.getResponse().getContentAsString();
+        assertThat(body.length()).isGreaterThan(4096);
+        assertThat(objectMapper.readTree(body)).hasSize(30);
+        IdempotencyRecord record = recordRepository.findById(recordId(member, "booking-batch", key)).orElseThrow();
+        assertThat(objectMapper.readTree(record.getResponseBody())).isEqualTo(objectMapper.readTree(body));
+        assertThat(replay.getResponse().getHeader(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(objectMapper.readTree(replay.getResponse().getContentAsString()))
+                .isEqualTo(objectMapper.readTree(body));
+        assertThat(bookingRepository.findByUserId(member.getId())).hasSize(30);
+        assertThat(walletService.getMyWallet(member).getBalance()).isZero();
+    }
+
+    private MvcResult batch(User member, String key, String request) throws Exception {
+        return mockMvc.perform(post("/api/v1/bookings/batch")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtService.generateToken(member))
+                        .header(IdempotencyService.HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(request))
+                .andExpect(status().isOk())
+                .andReturn();
+    }
+
+    private ResponseEntity<Void> topUp(User member, String key, Supplier<?> afterCredit) {
+        Map<String, Object> request = Map.of("amount", 25.0);
+        return idempotencyService.execute(member, SCOPE, key, request, Void.class, () -> {
+            walletService.addFunds(member, 25.0, "TOPUP-" + UUID.randomUUID(), "STRIPE");
+            if (afterCredit != null) {
+                afterCredit.get();
+            }
+            return ResponseEntity.ok().build();
+        });
+    }
+
+    private void age(User member, String key, Consumer<IdempotencyRecord> change) {
+        IdempotencyRecord record = recordRepository.findById(recordId(member, SCOPE, key)).orElseThrow();
+        record.setCreatedAt(LocalDateTime.now().minusHours(1));
+        if (change != null) {
+            change.accept(record);
+        }
+        recordRepository.save(record);
+    }
+
+    private static void assertConflict(Runnable request) {
+        assertThatThrownBy(request::run)
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+    }
+
+    private static String recordId(User member, String scope, String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest((member.getId() + ":" + scope + ":" + key)
+                    .getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.gym.management.service;
+
+import com.gym.management.IntegrationTest;
+import com.gym.management.model.GymService;
+import com.gym.management.model.LedgerAccount;
+import com.gym.management.model.LedgerEntry;
+import com.gym.management.model.Role;
+import com.gym.management.model.ServiceType;
+import com.gym.management.model.TransactionType;
+import com.gym.management.model.User;
+import com.gym.management.model.WalletSnapshot;
+import com.gym.management.repository.LedgerEntryRepository;
+import com.gym.management.repository.WalletRepository;
+import com.gym.management.repository.WalletSnapshotRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Folding must never lose an entry, however late its transaction commits, and ledger balances must keep matching
+// the wallets while bookings run alongside the fold.
+@Slf4j
+class LedgerSnapshotTest extends IntegrationTest {
+
+    private static final int MEMBERS = 40;
+    private static final int SESSIONS = 2;
+    private static final int THREADS = 8;
+    private static final double PRICE = 10;
+    // Above the H2 lock timeout, so a fold stuck on a lock fails on its own assertion rather than on this wait
+    private static final long LATCH_SECONDS = 30;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private LedgerEntryRepository entryRepository;
+
+    @Autowired
+    private WalletSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private SlotService slotService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    // Earlier test classes leave their entries unfolded; folding them here keeps each test's first fold small
+    @BeforeEach
+    void foldEarlierEntries() {
+        ledgerService.snapshot();
+    }
+
+    @Test
+    void entryCommittedBehindAFoldIsPickedUpByTheNextOne() throws Exception {
+        Integer walletId = walletService.getWalletId(newUser(Role.MEMBER));
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // A long-running transaction takes the lower id but commits only after a later entry has been folded
+        CompletableFuture<Void> slow = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(
+                status -> {
+                    credit(walletId, 500);
+                    inserted.countDown();
+                    await(release);
+                }));
+        assertThat(inserted.await(LATCH_SECONDS, TimeUnit.SECONDS)).isTrue();
+        transactionTemplate.executeWithoutResult(status -> credit(walletId, 300));
+        // The fold marks entries by id, so it never waits on the uncommitted one; a fold that did would time out
+        // and roll back, leaving the snapshot empty
+        ledgerService.snapshot();
+        assertThat(snapshotMinor(walletId)).isEqualTo(300);
+        assertThat(ledgerService.balanceMinor(walletId)).isEqualTo(300);
+
+        release.countDown();
+        slow.get(LATCH_SECONDS, TimeUnit.SECONDS);
+        List<LedgerEntry> entries = walletEntries(walletId);
+        assertThat(entries).extracting(LedgerEntry::getAmountMinor).containsExactly(500L, 300L);
+        assertThat(entries).extracting(LedgerEntry::isFolded).containsExactly(false, true);
+        assertThat(ledgerService.balanceMinor(walletId)).isEqualTo(800);
+
+        ledgerService.snapshot();
+        assertThat(snapshotMinor(walletId)).isEqualTo(800);
+        assertThat(ledgerService.balanceMinor(walletId)).isEqualTo(800);
+    }
+
+    @Test
+    void balancesMatchWalletsWhileBookingsRunAlongsideTheFold() throws Exception {
+        admin();
+        User trainer = newUser(Role.TRAINER);
+        GymService service = approvedService(trainer, ServiceType.CROSSFIT, PRICE, MEMBERS);
+        LocalDateTime first = LocalDateTime.now().plusDays(10).truncatedTo(ChronoUnit.HOURS);
+        List<User> members = new ArrayList<>();
+        for (int i = 0; i < MEMBERS; i++) {
+            User member = newUser(Role.MEMBER);
+            topUp(member, PRICE * SESSIONS);
+            members.add(member);
+        }
+
+        AtomicBoolean booking = new AtomicBoolean(true);
+        AtomicInteger folds = new AtomicInteger();
+        CompletableFuture<Void> folder = CompletableFuture.runAsync(() -> {
+            while (booking.get()) {
+                ledgerService.snapshot();
+                folds.incrementAndGet();
+            }
+        });
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (User member : members) {
+                pool.execute(() -> {
+                    try {
+                        for (int s = 0; s < SESSIONS; s++) {
+                            LocalDateTime session = first.plusDays(s);
+                            slotService.open(service.getId(), session);
+                            bookingService.createBooking(member, service.getId(), session);
+                        }
+                    } catch (RuntimeException e) {
+                        failures.add(e);
+                    }
+                });
+            }
+        } finally {
+            pool.shutdown();
+            assertThat(pool.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+            booking.set(false);
+            folder.get(1, TimeUnit.MINUTES);
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        log.info("{} bookings on {} threads took {} ms with {} folds running alongside", MEMBERS * SESSIONS, THREADS,
+                millis, folds.get());
+
+        assertThat(failures).isEmpty();
+        List<User> owners = new ArrayList<>(members);
+        owners.add(trainer);
+        assertLedgerMatchesWallets(owners);
+        ledgerService.snapshot();
+        assertLedgerMatchesWallets(owners);
+        for (User owner : owners) {
+            assertThat(walletEntries(walletService.getWalletId(owner))).allMatch(LedgerEntry::isFolded);
+        }
+    }
+
+    private void assertLedgerMatchesWallets(List<User> owners) {
+        for (User owner : owners) {
+            Integer walletId = walletService.getWalletId(owner);
+            long walletMinor = LedgerService.toMinor(walletRepository.findById(walletId).orElseThrow().getBalance());
+            assertThat(ledgerService.balanceMinor(walletId)).as("wallet %d", walletId).isEqualTo(walletMinor);
+        }
+    }
+
+    private void credit(Integer walletId, long amountMinor) {
+        ledgerService.post(List.of(
+                LedgerService.Posting.wallet(walletId, amountMinor, TransactionType.DEPOSIT),
+                LedgerService.Posting.system(LedgerAccount.PAYMENT_GATEWAY, -amountMinor, TransactionType.DEPOSIT)));
+    }
+
+    private long snapshotMinor(Integer walletId) {
+        return snapshotRepository.findById(walletId).map(WalletSnapshot::getBalanceMinor).orElse(0L);
+    }
+
+    private List<LedgerEntry> walletEntries(Integer walletId) {
+        return entryRepository.findAll().stream()
+                .filter(e -> walletId.equals(e.getWalletId()))
+                .sorted(Comparator.comparing(LedgerEntry::getId))
+                .toList();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(LATCH_SECONDS, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.gym.management.service;
+
+import com.gym.management.IntegrationTest;
+import com.gym.management.model.ReconciliationRun;
+import com.gym.management.model.ReconciliationStatus;
+import com.gym.management.model.Role;
+import com.gym.management.model.WalletDiscrepancy;
+import com.gym.management.repository.ReconciliationRunRepository;
+import com.gym.management.repository.TransactionRepository;
+import com.gym.management.repository.WalletDiscrepancyRepository;
+import com.gym.management.repository.WalletRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// A run stopped after its first wave, as a shutdown would stop it, resumes from the saved position and reports
+// every tampered wallet exactly once.
+class ReconciliationResumeTest extends IntegrationTest {
+
+    // With one worker a wave is four chunks, and a wave splits evenly into them
+    private static final int CHUNKS_PER_WAVE = 4;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private ReconciliationRunRepository runRepository;
+
+    @Autowired
+    private WalletDiscrepancyRepository discrepancyRepository;
+
+    @Autowired
+    private TreasuryService treasuryService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void stoppedRunResumesAndReportsEachDiscrepancyOnce() throws Exception {
+        // Chunks sized so the first wave ends a little above today's last wallet, then wallets on both sides of it
+        int chunkSize = (walletRepository.findMaxId() + 2) / CHUNKS_PER_WAVE + 1;
+        int waveEnd = chunkSize * CHUNKS_PER_WAVE;
+        List<Integer> firstWave = new ArrayList<>();
+        List<Integer> secondWave = new ArrayList<>();
+        while (secondWave.size() < 3) {
+            Integer walletId = walletService.getWalletId(newUser(Role.MEMBER));
+            (walletId <= waveEnd ? firstWave : secondWave).add(walletId);
+        }
+        assertThat(firstWave).hasSizeGreaterThanOrEqualTo(2);
+        List<Integer> tampered = List.of(firstWave.get(0), firstWave.get(1), secondWave.get(0), secondWave.get(2));
+        transactionTemplate.executeWithoutResult(status -> tampered.forEach(id -> walletRepository.credit(id, 7.5)));
+
+        // The first chunk of the second wave parks until the service is closed
+        CountDownLatch secondWaveStarted = new CountDownLatch(1);
+        AtomicInteger chunks = new AtomicInteger();
+        ReconciliationService stopped = service(chunkSize, () -> {
+            if (chunks.incrementAndGet() > CHUNKS_PER_WAVE) {
+                secondWaveStarted.countDown();
+                new CountDownLatch(1).await();
+            }
+        });
+        assertThat(stopped.start()).isTrue();
+        assertThat(secondWaveStarted.await(30, TimeUnit.SECONDS)).isTrue();
+        stopped.close();
+
+        ReconciliationRun interrupted = runRepository.findFirstByStatusNotOrderByIdDesc(ReconciliationStatus.COMPLETED)
+                .orElseThrow();
+        assertThat(interrupted.getStatus()).isEqualTo(ReconciliationStatus.RUNNING);
+        assertThat(interrupted.getPosition()).isEqualTo(waveEnd);
+        assertThat(walletIds(interrupted.getId())).contains(firstWave.get(0), firstWave.get(1))
+                .doesNotContainAnyElementsOf(secondWave);
+
+        ReconciliationService resumed = service(chunkSize, () -> {
+        });
+        try {
+            assertThat(resumed.start()).isTrue();
+            for (int i = 0; i < 300 && resumed.isRunning(); i++) {
+                Thread.sleep(100);
+            }
+            assertThat(resumed.isRunning()).isFalse();
+        } finally {
+            resumed.close();
+        }
+
+        ReconciliationRun run = runRepository.findById(interrupted.getId()).orElseThrow();
+        assertThat(run.getStatus()).isEqualTo(ReconciliationStatus.COMPLETED);
+        List<Integer> reported = walletIds(run.getId());
+        assertThat(reported).doesNotHaveDuplicates().hasSize(run.getDiscrepancies());
+        assertThat(reported).containsAll(tampered);
+        assertThat(reported).doesNotContain(firstWave.get(firstWave.size() - 1), secondWave.get(1));
+        assertThat(run.getWalletsChecked()).isEqualTo(walletRepository.findBalancesBetween(1, run.getUpToWalletId())
+                .size());
+    }
+
+    private interface Hook {
+        void run() throws InterruptedException;
+    }
+
+    // A service of its own with one worker, whose treasury lookup at the start of each chunk runs the hook
+    private ReconciliationService service(int chunkSize, Hook beforeChunk) {
+        TreasuryService treasury = mock(TreasuryService.class);
+        Integer treasuryWalletId = treasuryService.getTreasuryWalletId();
+        when(treasury.getTreasuryWalletId()).thenAnswer(invocation -> {
+            beforeChunk.run();
+            return treasuryWalletId;
+        });
+        when(treasury.pendingCommission(any())).thenAnswer(invocation ->
+                treasuryService.pendingCommission(invocation.getArgument(0)));
+        return new ReconciliationService(transactionRepository, walletRepository, runRepository, discrepancyRepository,
+                treasury, transactionManager, chunkSize, 1);
+    }
+
+    private List<Integer> walletIds(Long runId) {
+        return discrepancyRepository.findByRunIdAndIdGreaterThanOrderById(runId, 0L, Pageable.unpaged()).stream()
+                .map(WalletDiscrepancy::getWalletId)
+                .toList();
+    }
+}
@@ -0,0 +1,92 @@
+package com.gym.management.service;
+
+import com.gym.management.IntegrationTest;
+import com.gym.management.model.Booking;
+import com.gym.management.model.GymService;
+import com.gym.management.model.JobCheckpoint;
+import com.gym.management.model.Role;
+import com.gym.management.model.ServiceType;
+import com.gym.management.model.TransactionType;
+import com.gym.management.model.User;
+import com.gym.management.repository.BookingRepository;
+import com.gym.management.repository.JobCheckpointRepository;
+import com.gym.management.repository.RevenueDailyRepository;
+import com.gym.management.repository.projection.DailyAmount;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Rollups are rebuilt only for days the live updates have finished with: a backfill may not reach past today,
+// and the deploy day, whose rows lack the movements made before the deploy, is rebuilt once it is over.
+class RevenueRollupBackfillTest extends IntegrationTest {
+
+    private static final String BACKFILL_JOB = "revenue-rollup-backfill";
+    private static final String DEPLOY_DAY_JOB = "revenue-rollup-deploy-day";
+
+    @Autowired
+    private RevenueService revenueService;
+
+    @Autowired
+    private RevenueDailyRepository rollupRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private JobCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Test
+    void backfillPastTodayIsRejected() throws Exception {
+        Long backfilledBefore = checkpointRepository.findById(BACKFILL_JOB).map(JobCheckpoint::getPosition)
+                .orElseThrow();
+
+        mockMvc.perform(post("/api/v1/admin/revenue/rollups/backfill")
+                        .header(HttpHeaders.AUTHORIZATION, admin().bearer())
+                        .param("before", LocalDate.now().plusDays(1).toString()))
+                .andExpect(status().isBadRequest());
+        assertThat(checkpointRepository.findById(BACKFILL_JOB).map(JobCheckpoint::getPosition))
+                .contains(backfilledBefore);
+    }
+
+    @Test
+    void deployDayIsRebuiltOnceItIsOver() {
+        admin();
+        GymService service = approvedService(newUser(Role.TRAINER), ServiceType.YOGA, 10, null);
+        User member = newUser(Role.MEMBER);
+        topUp(member, 10);
+        Booking booking = bookingService.createBooking(member, service.getId(),
+                LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS));
+        // Made yesterday, before rollups were live, so yesterday's rows never saw it
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        booking.setCreatedAt(yesterday.atTime(9, 0));
+        bookingRepository.save(booking);
+        checkpointRepository.save(JobCheckpoint.builder()
+                .name(DEPLOY_DAY_JOB)
+                .position(yesterday.toEpochDay())
+                .updatedAt(LocalDateTime.now())
+                .build());
+        assertThat(bookings(yesterday)).isZero();
+
+        revenueService.completeDeployDay();
+
+        assertThat(bookings(yesterday)).isEqualTo(1000);
+        assertThat(checkpointRepository.existsById(DEPLOY_DAY_JOB)).isFalse();
+    }
+
+    private long bookings(LocalDate day) {
+        return rollupRepository.sumByDayBetween(TransactionType.BOOKING, day, day).stream()
+                .mapToLong(DailyAmount::amountMinor)
+                .sum();
+    }
+}
@@ -0,0 +1,104 @@
+package com.gym.management.service;
+
+import com.gym.management.IntegrationTest;
+import com.gym.management.model.GymService;
+import com.gym.management.model.Role;
+import com.gym.management.model.ServiceSlot;
+import com.gym.management.model.ServiceType;
+import com.gym.management.model.User;
+import com.gym.management.repository.BookingRepository;
+import com.gym.management.repository.ServiceSlotRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Hundreds of members book the same session the moment it opens. Seats are claimed with a conditional UPDATE, so
+// exactly `capacity` bookings go through, the rest are told the session is full, and nothing is charged for them.
+class SeatClaimConcurrencyTest extends IntegrationTest {
+
+    private static final int MEMBERS = 300;
+    private static final int CAPACITY = 25;
+    private static final int THREADS = 32;
+    private static final double PRICE = 10;
+
+    @Autowired
+    private SlotService slotService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ServiceSlotRepository slotRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Test
+    void popularSessionIsNeverOversold() throws Exception {
+        admin();
+        GymService service = approvedService(newUser(Role.TRAINER), ServiceType.CROSSFIT, PRICE, CAPACITY);
+        LocalDateTime session = LocalDateTime.now().plusDays(7).truncatedTo(ChronoUnit.HOURS);
+        List<User> members = new ArrayList<>();
+        for (int i = 0; i < MEMBERS; i++) {
+            User member = newUser(Role.MEMBER);
+            topUp(member, PRICE);
+            members.add(member);
+        }
+
+        AtomicInteger booked = new AtomicInteger();
+        Queue<User> turnedAway = new ConcurrentLinkedQueue<>();
+        Queue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (User member : members) {
+                pool.execute(() -> {
+                    try {
+                        start.await();
+                        slotService.open(service.getId(), session);
+                        bookingService.createBooking(member, service.getId(), session);
+                        booked.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        if ("This timeslot is fully booked".equals(e.getMessage())) {
+                            turnedAway.add(member);
+                        } else {
+                            unexpected.add(e);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            start.countDown();
+        } finally {
+            pool.shutdown();
+            assertThat(pool.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+        }
+
+        assertThat(unexpected).isEmpty();
+        assertThat(booked.get()).isEqualTo(CAPACITY);
+        assertThat(turnedAway).hasSize(MEMBERS - CAPACITY);
+
+        ServiceSlot slot = slotRepository.findByServiceIdAndStartTime(service.getId(), session).orElseThrow();
+        assertThat(slot.getBooked()).isEqualTo(CAPACITY);
+        assertThat(slot.getCapacity()).isEqualTo(CAPACITY);
+        assertThat(bookingRepository.findAll().stream()
+                .filter(b -> b.getService().getId().equals(service.getId()))).hasSize(CAPACITY);
+        for (User member : turnedAway) {
+            assertThat(walletService.getMyWallet(member).getBalance()).isEqualTo(PRICE);
+        }
+    }
+}
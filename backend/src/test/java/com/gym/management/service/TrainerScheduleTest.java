@@ -0,0 +1,63 @@
+package com.gym.management.service;
+
+import com.gym.management.IntegrationTest;
+import com.gym.management.dto.TrainerCalendarResponse;
+import com.gym.management.model.Booking;
+import com.gym.management.model.GymService;
+import com.gym.management.model.Role;
+import com.gym.management.model.ServiceType;
+import com.gym.management.model.User;
+import com.gym.management.repository.BookingRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TrainerScheduleTest extends IntegrationTest {
+
+    @Autowired
+    private TrainerSchedule trainerSchedule;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Test
+    void loadsOnlySessionsThatHaveNotEnded() {
+        User trainer = newUser(Role.TRAINER);
+        User member = newUser(Role.MEMBER);
+        GymService yoga = approvedService(trainer, ServiceType.YOGA, 10, null);
+        yoga.setSessionMinutes(90);
+        gymServiceRepository.save(yoga);
+        GymService cardio = approvedService(trainer, ServiceType.CARDIO, 10, null);
+
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        LocalDateTime ended = now.minusDays(3);
+        LocalDateTime running = now.minusMinutes(30);
+        LocalDateTime upcoming = now.plusDays(2);
+        for (LocalDateTime start : new LocalDateTime[] { ended, running, upcoming }) {
+            bookingRepository.save(Booking.builder()
+                    .user(member)
+                    .service(yoga)
+                    .bookingDate(start)
+                    .totalAmount(10.0)
+                    .status("CONFIRMED")
+                    .build());
+        }
+
+        TrainerCalendarResponse calendar = trainerSchedule.getCalendar(trainer.getId(), now.minusDays(4),
+                now.plusDays(3));
+        assertThat(calendar.getBusy()).extracting(TrainerCalendarResponse.Block::getStart)
+                .containsExactly(running, upcoming);
+
+        // The running session was loaded, so it still blocks the trainer
+        assertThatThrownBy(() -> trainerSchedule.reserve(cardio, now.plusMinutes(30)))
+                .hasMessageStartingWith("Trainer is already booked");
+        assertThatThrownBy(() -> trainerSchedule.reserve(cardio, ended))
+                .hasMessage("This session has already ended");
+        trainerSchedule.reserve(cardio, now.plusMinutes(60));
+    }
+}
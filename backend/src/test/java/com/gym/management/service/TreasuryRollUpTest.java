@@ -0,0 +1,184 @@
+package com.gym.management.service;
+
+import com.gym.management.IntegrationTest;
+import com.gym.management.model.GymService;
+import com.gym.management.model.Role;
+import com.gym.management.model.ServiceType;
+import com.gym.management.model.User;
+import com.gym.management.repository.TreasuryShardRepository;
+import com.gym.management.repository.WalletRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Commission lands on sharded sub-accounts while the roll-up moves them into the treasury wallet. Whatever the
+// interleaving, the sub-accounts plus the treasury wallet must grow by exactly the commission booked.
+@Slf4j
+class TreasuryRollUpTest extends IntegrationTest {
+
+    private static final int THREADS = 8;
+    private static final double PRICE = 10;
+    private static final long COMMISSION_MINOR = 150;
+
+    @Autowired
+    private TreasuryService treasuryService;
+
+    @Autowired
+    private TreasuryShardRepository shardRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private SlotService slotService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Test
+    void bookedCommissionIsConservedWhileRollUpRuns() throws Exception {
+        admin();
+        Integer treasuryWalletId = treasuryService.getTreasuryWalletId();
+        GymService service = approvedService(newUser(Role.TRAINER), ServiceType.CROSSFIT, PRICE, 50);
+        LocalDateTime first = LocalDateTime.now().plusDays(20).truncatedTo(ChronoUnit.HOURS);
+        List<User> members = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            User member = newUser(Role.MEMBER);
+            topUp(member, PRICE * 2);
+            members.add(member);
+        }
+        long walletBefore = walletMinor(treasuryWalletId);
+        long ledgerBefore = ledgerService.balanceMinor(treasuryWalletId);
+        long shardsBefore = shardRepository.sumBalances();
+
+        AtomicInteger booked = new AtomicInteger();
+        int rollUps = whileRollingUp(treasuryService::rollUp, members.stream().<Runnable>map(member -> () -> {
+            for (int s = 0; s < 2; s++) {
+                LocalDateTime session = first.plusDays(s);
+                slotService.open(service.getId(), session);
+                bookingService.createBooking(member, service.getId(), session);
+                booked.incrementAndGet();
+            }
+        }).toList());
+
+        assertThat(booked.get()).isEqualTo(60);
+        assertThat(rollUps).isPositive();
+        long walletGain = walletMinor(treasuryWalletId) - walletBefore;
+        long shardGain = shardRepository.sumBalances() - shardsBefore;
+        assertThat(walletGain + shardGain).isEqualTo(booked.get() * COMMISSION_MINOR);
+        assertThat(ledgerService.balanceMinor(treasuryWalletId) - ledgerBefore).isEqualTo(walletGain);
+
+        treasuryService.rollUp();
+        assertThat(shardRepository.sumBalances()).isZero();
+        // Commission other tests left on the sub-accounts is drained along with this test's
+        assertThat(walletMinor(treasuryWalletId) - walletBefore)
+                .isEqualTo(booked.get() * COMMISSION_MINOR + shardsBefore);
+    }
+
+    // Each credit holds its sub-account row for 5 ms before committing, standing in for the rest of a booking
+    // transaction, so throughput shows how far the shards spread the lock
+    @ParameterizedTest
+    @ValueSource(ints = { 1, 4, 16 })
+    void shardedCreditsAreConservedWhileRollUpRuns(int shards) throws Exception {
+        admin();
+        TreasuryService treasury = new TreasuryService(userRepository, walletRepository, shardRepository,
+                ledgerService, transactionTemplate, "", shards);
+        Integer treasuryWalletId = treasury.getTreasuryWalletId();
+        long before = walletMinor(treasuryWalletId) + shardRepository.sumBalances();
+
+        int creditsPerThread = 25;
+        AtomicInteger credited = new AtomicInteger();
+        List<Runnable> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int worker = t;
+            workers.add(() -> {
+                for (int i = 0; i < creditsPerThread; i++) {
+                    int key = worker * creditsPerThread + i;
+                    transactionTemplate.executeWithoutResult(status -> {
+                        treasury.creditCommission(key, COMMISSION_MINOR);
+                        sleep(5);
+                    });
+                    credited.incrementAndGet();
+                }
+            });
+        }
+        long start = System.nanoTime();
+        int rollUps = whileRollingUp(treasury::rollUp, workers);
+        long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        log.info("{} shards: {} credits on {} threads in {} ms ({}/s) with {} roll-ups", shards, credited.get(),
+                THREADS, millis, credited.get() * 1000L / millis, rollUps);
+
+        assertThat(credited.get()).isEqualTo(THREADS * creditsPerThread);
+        long after = walletMinor(treasuryWalletId) + shardRepository.sumBalances();
+        assertThat(after - before).isEqualTo(credited.get() * COMMISSION_MINOR);
+    }
+
+    // Runs the workers on a pool while another thread rolls up in a loop; returns how many roll-ups ran
+    private int whileRollingUp(Runnable rollUp, List<Runnable> workers) throws Exception {
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger rollUps = new AtomicInteger();
+        CompletableFuture<Void> roller = CompletableFuture.runAsync(() -> {
+            while (running.get()) {
+                rollUp.run();
+                rollUps.incrementAndGet();
+            }
+        });
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (Runnable worker : workers) {
+                pool.execute(() -> {
+                    try {
+                        worker.run();
+                    } catch (RuntimeException e) {
+                        failures.add(e);
+                    }
+                });
+            }
+        } finally {
+            pool.shutdown();
+            assertThat(pool.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+            running.set(false);
+            roller.get(1, TimeUnit.MINUTES);
+        }
+        assertThat(failures).isEmpty();
+        return rollUps.get();
+    }
+
+    private long walletMinor(Integer walletId) {
+        return LedgerService.toMinor(walletRepository.findById(walletId).orElseThrow().getBalance());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.gym.management.service;
+
+import com.gym.management.IntegrationTest;
+import com.gym.management.model.GymService;
+import com.gym.management.model.Role;
+import com.gym.management.model.ServiceType;
+import com.gym.management.model.TransactionType;
+import com.gym.management.model.User;
+import com.gym.management.repository.TransactionRepository;
+import com.gym.management.repository.WalletRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Wallet balances change only through conditional UPDATEs, so concurrent bookings can neither overdraw a member nor
+// lose a credit on the shared trainer wallet, and the ledger agrees with every wallet afterwards.
+class WalletConcurrencyTest extends IntegrationTest {
+
+    private static final int THREADS = 16;
+    private static final double PRICE = 10;
+    private static final long TRAINER_SHARE_MINOR = 850;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Test
+    void memberWithFundsForTenOfThirtyConcurrentBookingsGetsExactlyTen() throws Exception {
+        admin();
+        User trainer = newUser(Role.TRAINER);
+        GymService service = approvedService(trainer, ServiceType.YOGA, PRICE, null);
+        User member = newUser(Role.MEMBER);
+        topUp(member, PRICE * 10);
+        LocalDateTime first = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+
+        AtomicInteger booked = new AtomicInteger();
+        Queue<Throwable> refused = new ConcurrentLinkedQueue<>();
+        List<Runnable> bookings = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            LocalDateTime session = first.plusDays(i);
+            bookings.add(() -> {
+                try {
+                    bookingService.createBooking(member, service.getId(), session);
+                    booked.incrementAndGet();
+                } catch (RuntimeException e) {
+                    refused.add(e);
+                }
+            });
+        }
+        runTogether(bookings);
+
+        assertThat(booked.get()).isEqualTo(10);
+        assertThat(refused).hasSize(20).allMatch(e -> "Insufficient funds in member wallet".equals(e.getMessage()));
+        assertThat(walletMinor(member)).isZero();
+        assertThat(walletMinor(trainer)).isEqualTo(10 * TRAINER_SHARE_MINOR);
+        assertThat(transactionRepository.findByWalletId(walletService.getWalletId(member)))
+                .filteredOn(t -> t.getType() == TransactionType.BOOKING).hasSize(10);
+        assertLedgerAgrees(List.of(member, trainer));
+    }
+
+    @Test
+    void sharedTrainerWalletKeepsEveryCredit() throws Exception {
+        admin();
+        User trainer = newUser(Role.TRAINER);
+        GymService service = approvedService(trainer, ServiceType.YOGA, PRICE, null);
+        LocalDateTime first = LocalDateTime.now().plusDays(40).truncatedTo(ChronoUnit.HOURS);
+        List<User> members = new ArrayList<>();
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        List<Runnable> bookings = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            User member = newUser(Role.MEMBER);
+            topUp(member, PRICE * 4);
+            members.add(member);
+            for (int s = 0; s < 4; s++) {
+                LocalDateTime session = first.plusDays(s);
+                bookings.add(() -> {
+                    try {
+                        bookingService.createBooking(member, service.getId(), session);
+                    } catch (RuntimeException e) {
+                        failures.add(e);
+                    }
+                });
+            }
+        }
+        runTogether(bookings);
+
+        assertThat(failures).isEmpty();
+        assertThat(walletMinor(trainer)).isEqualTo(160 * TRAINER_SHARE_MINOR);
+        for (User member : members) {
+            assertThat(walletMinor(member)).isZero();
+        }
+        List<User> owners = new ArrayList<>(members);
+        owners.add(trainer);
+        assertLedgerAgrees(owners);
+    }
+
+    @Test
+    void concurrentTopUpsAllLand() throws Exception {
+        User member = newUser(Role.MEMBER);
+        List<Runnable> topUps = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            topUps.add(() -> walletService.addFunds(member, 2.5, "TOPUP-" + UUID.randomUUID(), "STRIPE"));
+        }
+        runTogether(topUps);
+
+        assertThat(walletMinor(member)).isEqualTo(50 * 250);
+        assertLedgerAgrees(List.of(member));
+    }
+
+    // Releases every task at once on a pool smaller than the task count
+    private void runTogether(List<Runnable> tasks) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        Queue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (Runnable task : tasks) {
+                pool.execute(() -> {
+                    try {
+                        start.await();
+                        task.run();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (RuntimeException e) {
+                        unexpected.add(e);
+                    }
+                });
+            }
+            start.countDown();
+        } finally {
+            pool.shutdown();
+            assertThat(pool.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+        }
+        assertThat(unexpected).isEmpty();
+    }
+
+    private long walletMinor(User owner) {
+        return LedgerService.toMinor(walletRepository.findById(walletService.getWalletId(owner)).orElseThrow()
+                .getBalance());
+    }
+
+    private void assertLedgerAgrees(List<User> owners) {
+        for (User owner : owners) {
+            Integer walletId = walletService.getWalletId(owner);
+            assertThat(ledgerService.balanceMinor(walletId)).as("wallet %d", walletId).isEqualTo(walletMinor(owner));
+        }
+    }
+}